@@ -0,0 +1,321 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.text;
+
+import org.apache.commons.text.lookup.StringLookup;
+import org.apache.commons.text.matcher.StringMatcher;
+
+/**
+ * An immutable {@link StringSubstitutor} that can be shared by many threads without synchronization.
+ * <p>
+ * Configure a regular {@link StringSubstitutor} with its setters, then freeze it:
+ * </p>
+ *
+ * <pre>
+ * private static final StringSubstitutor SUBSTITUTOR = new StringSubstitutor(StringLookupFactory.INSTANCE.environmentVariableStringLookup())
+ *     .setEnableSubstitutionInVariables(true)
+ *     .setValueDelimiter("?:")
+ *     .toImmutable();
+ * </pre>
+ * <p>
+ * The settings are copied into final fields when the instance is created, all {@code set} methods throw
+ * {@link UnsupportedOperationException}, and each {@code replace} call keeps its state on the stack. Since variables
+ * are resolved through the {@link StringLookup}, that lookup must itself be thread-safe; the lookups provided by
+ * {@link org.apache.commons.text.lookup.StringLookupFactory} are.
+ * </p>
+ * <h2>Thread Safety</h2>
+ * <p>
+ * This class is immutable and thread-safe provided its {@link StringLookup} is thread-safe.
+ * </p>
+ *
+ * @see StringSubstitutor#toImmutable()
+ * @since 1.14.0
+ */
+public final class ImmutableStringSubstitutor extends StringSubstitutor {
+
+    /**
+     * The flag whether substitution in variable values is disabled.
+     */
+    private final boolean disableSubstitutionInValues;
+
+    /**
+     * The flag whether substitution in variable names is enabled.
+     */
+    private final boolean enableSubstitutionInVariables;
+
+    /**
+     * The flag whether exception should be thrown on undefined variable.
+     */
+    private final boolean failOnUndefinedVariable;
+
+    /**
+     * Stores the escape character.
+     */
+    private final char escapeChar;
+
+    /**
+     * Receives substitution events, null if none.
+     */
+    private final StringSubstitutorListener listener;
+
+    /**
+     * Whether each variable is resolved once per substitution.
+     */
+    private final boolean memoizeVariables;
+
+    /**
+     * Stores the variable prefix.
+     */
+    private final StringMatcher prefixMatcher;
+
+    /**
+     * Whether escapes should be preserved.
+     */
+    private final boolean preserveEscapes;
+
+    /**
+     * Stores the variable suffix.
+     */
+    private final StringMatcher suffixMatcher;
+
+    /**
+     * Stores the default variable value delimiter.
+     */
+    private final StringMatcher valueDelimiterMatcher;
+
+    /**
+     * Variable resolution is delegated to an implementor of {@link StringLookup}.
+     */
+    private final StringLookup variableResolver;
+
+    /**
+     * Creates a new instance with the current settings of the given StringSubstitutor.
+     *
+     * @param other The StringSubstitutor used as the source.
+     */
+    public ImmutableStringSubstitutor(final StringSubstitutor other) {
+        super(other);
+        disableSubstitutionInValues = other.isDisableSubstitutionInValues();
+        enableSubstitutionInVariables = other.isEnableSubstitutionInVariables();
+        failOnUndefinedVariable = other.isEnableUndefinedVariableException();
+        escapeChar = other.getEscapeChar();
+        listener = other.getListener();
+        memoizeVariables = other.isMemoizeVariables();
+        prefixMatcher = other.getVariablePrefixMatcher();
+        preserveEscapes = other.isPreserveEscapes();
+        suffixMatcher = other.getVariableSuffixMatcher();
+        valueDelimiterMatcher = other.getValueDelimiterMatcher();
+        variableResolver = other.getStringLookup();
+    }
+
+    @Override
+    public char getEscapeChar() {
+        return escapeChar;
+    }
+
+    @Override
+    public StringSubstitutorListener getListener() {
+        return listener;
+    }
+
+    @Override
+    public StringLookup getStringLookup() {
+        return variableResolver;
+    }
+
+    @Override
+    public StringMatcher getValueDelimiterMatcher() {
+        return valueDelimiterMatcher;
+    }
+
+    @Override
+    public StringMatcher getVariablePrefixMatcher() {
+        return prefixMatcher;
+    }
+
+    @Override
+    public StringMatcher getVariableSuffixMatcher() {
+        return suffixMatcher;
+    }
+
+    @Override
+    public boolean isDisableSubstitutionInValues() {
+        return disableSubstitutionInValues;
+    }
+
+    @Override
+    public boolean isEnableSubstitutionInVariables() {
+        return enableSubstitutionInVariables;
+    }
+
+    @Override
+    public boolean isEnableUndefinedVariableException() {
+        return failOnUndefinedVariable;
+    }
+
+    @Override
+    public boolean isMemoizeVariables() {
+        return memoizeVariables;
+    }
+
+    @Override
+    public boolean isPreserveEscapes() {
+        return preserveEscapes;
+    }
+
+    /**
+     * Unsupported operation, this instance is immutable.
+     *
+     * @param disableSubstitutionInValues ignored.
+     * @return never returns.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public StringSubstitutor setDisableSubstitutionInValues(final boolean disableSubstitutionInValues) {
+        throw new UnsupportedOperationException("setDisableSubstitutionInValues() is unsupported");
+    }
+
+    /**
+     * Unsupported operation, this instance is immutable.
+     *
+     * @param enableSubstitutionInVariables ignored.
+     * @return never returns.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public StringSubstitutor setEnableSubstitutionInVariables(final boolean enableSubstitutionInVariables) {
+        throw new UnsupportedOperationException("setEnableSubstitutionInVariables() is unsupported");
+    }
+
+    /**
+     * Unsupported operation, this instance is immutable.
+     *
+     * @param failOnUndefinedVariable ignored.
+     * @return never returns.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public StringSubstitutor setEnableUndefinedVariableException(final boolean failOnUndefinedVariable) {
+        throw new UnsupportedOperationException("setEnableUndefinedVariableException() is unsupported");
+    }
+
+    /**
+     * Unsupported operation, this instance is immutable.
+     *
+     * @param escapeChar ignored.
+     * @return never returns.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public StringSubstitutor setEscapeChar(final char escapeChar) {
+        throw new UnsupportedOperationException("setEscapeChar() is unsupported");
+    }
+
+    /**
+     * Unsupported operation, this instance is immutable.
+     *
+     * @param listener ignored.
+     * @return never returns.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public StringSubstitutor setListener(final StringSubstitutorListener listener) {
+        throw new UnsupportedOperationException("setListener() is unsupported");
+    }
+
+    /**
+     * Unsupported operation, this instance is immutable.
+     *
+     * @param memoizeVariables ignored.
+     * @return never returns.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public StringSubstitutor setMemoizeVariables(final boolean memoizeVariables) {
+        throw new UnsupportedOperationException("setMemoizeVariables() is unsupported");
+    }
+
+    /**
+     * Unsupported operation, this instance is immutable.
+     *
+     * @param preserveEscapes ignored.
+     * @return never returns.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public StringSubstitutor setPreserveEscapes(final boolean preserveEscapes) {
+        throw new UnsupportedOperationException("setPreserveEscapes() is unsupported");
+    }
+
+    /**
+     * Unsupported operation, this instance is immutable.
+     *
+     * @param valueDelimiterMatcher ignored.
+     * @return never returns.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public StringSubstitutor setValueDelimiterMatcher(final StringMatcher valueDelimiterMatcher) {
+        throw new UnsupportedOperationException("setValueDelimiterMatcher() is unsupported");
+    }
+
+    /**
+     * Unsupported operation, this instance is immutable.
+     *
+     * @param prefixMatcher ignored.
+     * @return never returns.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public StringSubstitutor setVariablePrefixMatcher(final StringMatcher prefixMatcher) {
+        throw new UnsupportedOperationException("setVariablePrefixMatcher() is unsupported");
+    }
+
+    /**
+     * Unsupported operation, this instance is immutable.
+     *
+     * @param variableResolver ignored.
+     * @return never returns.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public StringSubstitutor setVariableResolver(final StringLookup variableResolver) {
+        throw new UnsupportedOperationException("setVariableResolver() is unsupported");
+    }
+
+    /**
+     * Unsupported operation, this instance is immutable.
+     *
+     * @param suffixMatcher ignored.
+     * @return never returns.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public StringSubstitutor setVariableSuffixMatcher(final StringMatcher suffixMatcher) {
+        throw new UnsupportedOperationException("setVariableSuffixMatcher() is unsupported");
+    }
+
+    /**
+     * Returns this instance, which is already immutable.
+     *
+     * @return this instance.
+     */
+    @Override
+    public ImmutableStringSubstitutor toImmutable() {
+        return this;
+    }
+}
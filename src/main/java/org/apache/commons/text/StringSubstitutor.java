@@ -16,11 +16,14 @@
  */
 package org.apache.commons.text;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -165,6 +168,17 @@ import org.apache.commons.text.matcher.StringMatcherFactory;
  * on how to reproduce the previous functionality.
  * </p>
  *
+ * <h2>Compiling Templates</h2>
+ * <p>
+ * When the same template is replaced many times, {@link #compile(String)} scans it once and returns a
+ * {@link StringSubstitutorTemplate} that can be rendered repeatedly against any {@link StringLookup}:
+ * </p>
+ *
+ * <pre>
+ * StringSubstitutorTemplate template = new StringSubstitutor().compile(templateString);
+ * String resolvedString = template.render(StringLookupFactory.INSTANCE.mapStringLookup(valuesMap));
+ * </pre>
+ *
  * <h2>Using Recursive Variable Replacement</h2>
  * <p>
  * Variable replacement can work recursively by calling {@link #setEnableSubstitutionInVariables(boolean)} with
@@ -212,13 +226,43 @@ import org.apache.commons.text.matcher.StringMatcherFactory;
  *
  * <h2>Thread Safety</h2>
  * <p>
- * This class is <strong>not</strong> thread safe.
+ * This class is <strong>not</strong> thread safe. To share a configured instance between threads, call
+ * {@link #toImmutable()} and share the resulting {@link ImmutableStringSubstitutor}.
  * </p>
  *
  * @since 1.3
  */
 public class StringSubstitutor {
 
+    /**
+     * The variables being resolved by a substitution, in resolution order, used to detect cyclic substitutions.
+     * <p>
+     * Lookups use a hash set, so each check takes constant time whatever the nesting depth. The source text is quoted
+     * when a cycle is reported. The {@code replace} methods pass the caller's text, which they do not alter, so it is
+     * not copied; otherwise the builder region is copied before its first variable is replaced.
+     * </p>
+     */
+    private static final class PriorVariables {
+
+        /** The names of the variables being resolved, in resolution order. */
+        private final Set<String> names = new LinkedHashSet<>();
+
+        /** The text being substituted, as it was before any variable was replaced. */
+        private final CharSequence source;
+
+        /** The start of the substituted text in the source. */
+        private final int start;
+
+        /** The end (exclusive) of the substituted text in the source. */
+        private final int end;
+
+        private PriorVariables(final CharSequence source, final int start, final int end) {
+            this.source = source;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
     /**
      * The low-level result of a substitution.
      *
@@ -470,6 +514,16 @@ public class StringSubstitutor {
      */
     private char escapeChar;
 
+    /**
+     * Receives substitution events, null if none.
+     */
+    private StringSubstitutorListener listener;
+
+    /**
+     * Whether each variable is resolved once per substitution. Default is false.
+     */
+    private boolean memoizeVariables;
+
     /**
      * Stores the variable prefix.
      */
@@ -647,6 +701,8 @@ public class StringSubstitutor {
         enableSubstitutionInVariables = other.isEnableSubstitutionInVariables();
         failOnUndefinedVariable = other.isEnableUndefinedVariableException();
         escapeChar = other.getEscapeChar();
+        listener = other.getListener();
+        memoizeVariables = other.isMemoizeVariables();
         prefixMatcher = other.getVariablePrefixMatcher();
         preserveEscapes = other.isPreserveEscapes();
         suffixMatcher = other.getVariableSuffixMatcher();
@@ -655,23 +711,42 @@ public class StringSubstitutor {
     }
 
     /**
-     * Checks if the specified variable is already in the stack (list) of variables.
+     * Checks if the specified variable is already in the stack of variables.
      *
      * @param varName the variable name to check
-     * @param priorVariables the list of prior variables
+     * @param priorVariables the prior variables
      */
-    private void checkCyclicSubstitution(final String varName, final List<String> priorVariables) {
-        if (!priorVariables.contains(varName)) {
+    private void checkCyclicSubstitution(final String varName, final PriorVariables priorVariables) {
+        if (!priorVariables.names.contains(varName)) {
             return;
         }
         final TextStringBuilder buf = new TextStringBuilder(256);
         buf.append("Infinite loop in property interpolation of ");
-        buf.append(priorVariables.remove(0));
+        buf.append(priorVariables.source, priorVariables.start, priorVariables.end);
         buf.append(": ");
-        buf.appendWithSeparators(priorVariables, "->");
+        buf.appendWithSeparators(priorVariables.names, "->");
         throw new IllegalStateException(buf.toString());
     }
 
+    /**
+     * Compiles the given template with the current settings of this instance.
+     * <p>
+     * The returned template is scanned for variables once and can then be rendered any number of times, which is more
+     * efficient than calling {@code replace} repeatedly with the same source text. Later changes to this instance do not
+     * affect the returned template.
+     * </p>
+     *
+     * @param template the template text, not null
+     * @return a new compiled template
+     * @throws NullPointerException if {@code template} is null
+     * @see StringSubstitutorTemplate
+     * @since 1.14.0
+     */
+    public StringSubstitutorTemplate compile(final String template) {
+        Objects.requireNonNull(template, "template");
+        return new StringSubstitutorTemplate(this, template);
+    }
+
     // Escape
     /**
      * Returns the escape character.
@@ -682,6 +757,17 @@ public class StringSubstitutor {
         return escapeChar;
     }
 
+    /**
+     * Gets the listener receiving substitution events.
+     *
+     * @return The listener, null if none.
+     * @see #setListener(StringSubstitutorListener)
+     * @since 1.14.0
+     */
+    public StringSubstitutorListener getListener() {
+        return listener;
+    }
+
     /**
      * Gets the StringLookup that is used to lookup variables.
      *
@@ -776,6 +862,17 @@ public class StringSubstitutor {
         return failOnUndefinedVariable;
     }
 
+    /**
+     * Returns the flag controlling whether each variable is resolved only once per substitution.
+     *
+     * @return The memoize variables flag
+     * @see #setMemoizeVariables(boolean)
+     * @since 1.14.0
+     */
+    public boolean isMemoizeVariables() {
+        return memoizeVariables;
+    }
+
     /**
      * Returns the flag controlling whether escapes are preserved during substitution.
      *
@@ -785,6 +882,17 @@ public class StringSubstitutor {
         return preserveEscapes;
     }
 
+    /**
+     * Tests whether this may be a subclass overriding {@link #substitute(TextStringBuilder, int, int)}, which is then
+     * called to substitute each text, including variable names.
+     *
+     * @return false if this is exactly a {@link StringSubstitutor} or an {@link ImmutableStringSubstitutor}.
+     */
+    private boolean isSubstituteOverridable() {
+        final Class<?> type = getClass();
+        return type != StringSubstitutor.class && type != ImmutableStringSubstitutor.class;
+    }
+
     /**
      * Replaces all the occurrences of variables with their matching values from the resolver using the given source
      * array as a template. The array is not altered by this method.
@@ -798,7 +906,7 @@ public class StringSubstitutor {
             return null;
         }
         final TextStringBuilder buf = new TextStringBuilder(source.length).append(source);
-        substitute(buf, 0, source.length);
+        substitute(buf, CharBuffer.wrap(source), 0, source.length);
         return buf.toString();
     }
 
@@ -825,7 +933,7 @@ public class StringSubstitutor {
             return null;
         }
         final TextStringBuilder buf = new TextStringBuilder(length).append(source, offset, length);
-        substitute(buf, 0, length);
+        substitute(buf, CharBuffer.wrap(source), offset, length);
         return buf.toString();
     }
 
@@ -863,7 +971,7 @@ public class StringSubstitutor {
             return null;
         }
         final TextStringBuilder buf = new TextStringBuilder(length).append(source.toString(), offset, length);
-        substitute(buf, 0, length);
+        substitute(buf, source, offset, length);
         return buf.toString();
     }
 
@@ -879,9 +987,7 @@ public class StringSubstitutor {
         if (source == null) {
             return null;
         }
-        final TextStringBuilder buf = new TextStringBuilder().append(source);
-        substitute(buf, 0, buf.length());
-        return buf.toString();
+        return replace(source.toString());
     }
 
     /**
@@ -897,7 +1003,7 @@ public class StringSubstitutor {
             return null;
         }
         final TextStringBuilder buf = new TextStringBuilder(source);
-        if (!substitute(buf, 0, source.length())) {
+        if (!substitute(buf, source, 0, source.length())) {
             return source;
         }
         return buf.toString();
@@ -926,7 +1032,7 @@ public class StringSubstitutor {
             return null;
         }
         final TextStringBuilder buf = new TextStringBuilder(length).append(source, offset, length);
-        if (!substitute(buf, 0, length)) {
+        if (!substitute(buf, source, offset, length)) {
             return source.substring(offset, offset + length);
         }
         return buf.toString();
@@ -945,7 +1051,7 @@ public class StringSubstitutor {
             return null;
         }
         final TextStringBuilder buf = new TextStringBuilder(source.length()).append(source);
-        substitute(buf, 0, buf.length());
+        substitute(buf, source, 0, buf.length());
         return buf.toString();
     }
 
@@ -968,7 +1074,7 @@ public class StringSubstitutor {
             return null;
         }
         final TextStringBuilder buf = new TextStringBuilder(length).append(source, offset, length);
-        substitute(buf, 0, length);
+        substitute(buf, source, offset, length);
         return buf.toString();
     }
 
@@ -985,7 +1091,7 @@ public class StringSubstitutor {
             return null;
         }
         final TextStringBuilder builder = new TextStringBuilder(source.length()).append(source);
-        substitute(builder, 0, builder.length());
+        substitute(builder, source, 0, builder.length());
         return builder.toString();
     }
 
@@ -1008,7 +1114,7 @@ public class StringSubstitutor {
             return null;
         }
         final TextStringBuilder buf = new TextStringBuilder(length).append(source, offset, length);
-        substitute(buf, 0, length);
+        substitute(buf, source, offset, length);
         return buf.toString();
     }
 
@@ -1045,7 +1151,7 @@ public class StringSubstitutor {
             return false;
         }
         final TextStringBuilder buf = new TextStringBuilder(length).append(source, offset, length);
-        if (!substitute(buf, 0, length)) {
+        if (!substitute(buf, source, offset, length)) {
             return false;
         }
         source.replace(offset, offset + length, buf.toString());
@@ -1085,7 +1191,7 @@ public class StringSubstitutor {
             return false;
         }
         final TextStringBuilder buf = new TextStringBuilder(length).append(source, offset, length);
-        if (!substitute(buf, 0, length)) {
+        if (!substitute(buf, source, offset, length)) {
             return false;
         }
         source.replace(offset, offset + length, buf.toString());
@@ -1128,6 +1234,31 @@ public class StringSubstitutor {
         return substitute(source, offset, length);
     }
 
+    /**
+     * Replaces all the occurrences of variables in the given source with their matching values from the resolver and
+     * writes the result to the given {@link Appendable}, for example a {@link java.io.Writer}.
+     * <p>
+     * Unlike the {@code replace} methods, the result is not built in memory first: literal text and resolved values are
+     * written to the target as they are produced, which avoids an intermediate buffer and a final {@code String} copy
+     * for large templates. Variables are resolved with {@link #getStringLookup()}; this method does not call
+     * {@link #resolveVariable(String, TextStringBuilder, int, int)}.
+     * </p>
+     *
+     * @param source the text containing the variables to substitute, not changed, null writes nothing
+     * @param appendable the target to write to, not null
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if variable is not found when its allowed to throw exception
+     * @see StringSubstitutorTemplate#render(StringLookup, Appendable)
+     * @since 1.14.0
+     */
+    public void replaceTo(final CharSequence source, final Appendable appendable) throws IOException {
+        Objects.requireNonNull(appendable, "appendable");
+        if (source == null) {
+            return;
+        }
+        new StringSubstitutorTemplate(this, source).render(getStringLookup(), appendable);
+    }
+
     /**
      * Internal method that resolves the value of a variable.
      * <p>
@@ -1155,6 +1286,61 @@ public class StringSubstitutor {
         return resolver.lookup(variableName);
     }
 
+    /**
+     * Resolves the value of a variable or falls back to its default value, notifying the listener if there is one.
+     *
+     * @param variableName the name of the variable, not null
+     * @param defaultValue the default value of the variable, may be null
+     * @param buf the buffer where the substitution is occurring, not null
+     * @param startPos the start position of the variable including the prefix, valid
+     * @param endPos the end position of the variable including the suffix, valid
+     * @param memo the values already resolved in this substitution, null if variables are not memoized
+     * @param listener the listener to notify, null if none
+     * @return The variable's value, its default value, or <strong>null</strong> if both are unknown
+     */
+    private String resolveVariable(final String variableName, final String defaultValue, final TextStringBuilder buf,
+        final int startPos, final int endPos, final Map<String, String> memo, final StringSubstitutorListener listener) {
+        if (listener == null) {
+            final String value = resolveVariable(variableName, buf, startPos, endPos, memo);
+            return value != null ? value : defaultValue;
+        }
+        final long start = System.nanoTime();
+        final String value = resolveVariable(variableName, buf, startPos, endPos, memo);
+        if (value != null) {
+            listener.onVariableResolved(variableName, System.nanoTime() - start);
+            return value;
+        }
+        if (defaultValue != null) {
+            listener.onDefaultValue(variableName);
+        } else {
+            listener.onUndefinedVariable(variableName);
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Resolves the value of a variable, at most once per substitution if a memo is given.
+     *
+     * @param variableName the name of the variable, not null
+     * @param buf the buffer where the substitution is occurring, not null
+     * @param startPos the start position of the variable including the prefix, valid
+     * @param endPos the end position of the variable including the suffix, valid
+     * @param memo the values already resolved in this substitution, null if variables are not memoized
+     * @return The variable's value or <strong>null</strong> if the variable is unknown
+     */
+    private String resolveVariable(final String variableName, final TextStringBuilder buf, final int startPos,
+        final int endPos, final Map<String, String> memo) {
+        if (memo == null) {
+            return resolveVariable(variableName, buf, startPos, endPos);
+        }
+        if (memo.containsKey(variableName)) {
+            return memo.get(variableName);
+        }
+        final String value = resolveVariable(variableName, buf, startPos, endPos);
+        memo.put(variableName, value);
+        return value;
+    }
+
     /**
      * Sets a flag whether substitution is done in variable values (recursive).
      *
@@ -1202,6 +1388,49 @@ public class StringSubstitutor {
         return this;
     }
 
+    /**
+     * Sets the listener receiving substitution events, for example, to collect metrics on substitutions, lookup times,
+     * default values and undefined variables. When no listener is set, which is the default, no time is measured and no
+     * events are created.
+     * <p>
+     * In a subclass, variable names are substituted through {@link #substitute(TextStringBuilder, int, int)}, so that an
+     * override sees them, and each name substitution is reported to the listener as a substitution of its own.
+     * </p>
+     *
+     * @param listener the listener, null for none.
+     * @return this, to enable chaining
+     * @since 1.14.0
+     */
+    public StringSubstitutor setListener(final StringSubstitutorListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * Sets a flag controlling whether each variable is resolved only once per substitution. If set to
+     * <strong>true</strong>, the value resolved for a variable name, including an unknown variable, is remembered for the
+     * rest of the {@code replace} call and reused for further references to the same name, including references in
+     * variable values and, if enabled, in variable names. This avoids repeating expensive lookups such as DNS, file,
+     * script or URL lookups when a template references the same variable many times. The default value is
+     * <strong>false</strong>.
+     * <p>
+     * When set, {@link #resolveVariable(String, TextStringBuilder, int, int)} is called once per variable name and
+     * substitution. To reuse values across substitutions, use a caching {@link StringLookup} instead.
+     * </p>
+     * <p>
+     * In a subclass, variable names are substituted through {@link #substitute(TextStringBuilder, int, int)}, so that an
+     * override sees them, and each name substitution remembers its own values.
+     * </p>
+     *
+     * @param memoizeVariables true if each variable is to be resolved once per substitution
+     * @return this, to enable chaining
+     * @since 1.14.0
+     */
+    public StringSubstitutor setMemoizeVariables(final boolean memoizeVariables) {
+        this.memoizeVariables = memoizeVariables;
+        return this;
+    }
+
     /**
      * Sets a flag controlling whether escapes are preserved during substitution. If set to <strong>true</strong>, the escape
      * character is retained during substitution (e.g. {@code $${this-is-escaped}} remains {@code $${this-is-escaped}}).
@@ -1376,6 +1605,31 @@ public class StringSubstitutor {
         return this;
     }
 
+    /**
+     * Splits a variable name expression into the variable name and its default value at the first value delimiter.
+     *
+     * @param varNameExpr the text between the prefix and the suffix, not null
+     * @return a two element array of the variable name and its default value, the default value may be null
+     */
+    private String[] splitVariable(final String varNameExpr) {
+        final StringMatcher prefixMatcher = getVariablePrefixMatcher();
+        final StringMatcher valueDelimMatcher = getValueDelimiterMatcher();
+        final char[] varNameExprChars = varNameExpr.toCharArray();
+        for (int i = 0; i < varNameExprChars.length; i++) {
+            // if there's any nested variable when nested variable substitution disabled,
+            // then stop resolving name and default value.
+            if (!isEnableSubstitutionInVariables()
+                && prefixMatcher.isMatch(varNameExprChars, i, i, varNameExprChars.length) != 0) {
+                break;
+            }
+            final int valueDelimiterMatchLen = valueDelimMatcher.isMatch(varNameExprChars, i, 0, varNameExprChars.length);
+            if (valueDelimiterMatchLen != 0) {
+                return new String[] {varNameExpr.substring(0, i), varNameExpr.substring(i + valueDelimiterMatchLen)};
+            }
+        }
+        return new String[] {varNameExpr, null};
+    }
+
     /**
      * Internal method that substitutes the variables.
      * <p>
@@ -1393,7 +1647,51 @@ public class StringSubstitutor {
      * @return true if altered
      */
     protected boolean substitute(final TextStringBuilder builder, final int offset, final int length) {
-        return substitute(builder, offset, length, null).altered;
+        return substitute(builder, offset, length, null);
+    }
+
+    /**
+     * Substitutes the variables in a builder holding a copy of the caller's text.
+     * <p>
+     * The caller's text is not altered while the builder is, so it is quoted if a cyclic substitution is found and the
+     * builder is not copied. Subclasses may override {@link #substitute(TextStringBuilder, int, int)}, so it is called
+     * instead for them.
+     * </p>
+     *
+     * @param builder the string builder to substitute into, holding the text to process from index 0, not null
+     * @param source the caller's text, not null
+     * @param sourceOffset the start offset of the text to process within the source
+     * @param length the length of the text to process
+     * @return true if altered
+     */
+    private boolean substitute(final TextStringBuilder builder, final CharSequence source, final int sourceOffset,
+        final int length) {
+        if (isSubstituteOverridable()) {
+            return substitute(builder, 0, length);
+        }
+        return substitute(builder, 0, length, new PriorVariables(source, sourceOffset, sourceOffset + length));
+    }
+
+    /**
+     * Substitutes the variables, notifying the listener if there is one.
+     *
+     * @param builder the string builder to substitute into, not null
+     * @param offset the start offset within the builder, must be valid
+     * @param length the length within the builder to be processed, must be valid
+     * @param priorVariables the variables quoting the caller's text, null to copy the builder region if needed
+     * @return true if altered
+     */
+    private boolean substitute(final TextStringBuilder builder, final int offset, final int length,
+        final PriorVariables priorVariables) {
+        final Map<String, String> memo = isMemoizeVariables() ? new HashMap<>() : null;
+        final StringSubstitutorListener listener = getListener();
+        if (listener == null) {
+            return substitute(builder, offset, length, priorVariables, memo).altered;
+        }
+        final long start = System.nanoTime();
+        final boolean altered = substitute(builder, offset, length, priorVariables, memo).altered;
+        listener.onSubstitution(System.nanoTime() - start);
+        return altered;
     }
 
     /**
@@ -1404,16 +1702,18 @@ public class StringSubstitutor {
      * @param offset the start offset within the builder, must be valid
      * @param length the length within the builder to be processed, must be valid
      * @param priorVariables the stack keeping track of the replaced variables, may be null
+     * @param memo the values already resolved in this substitution, null if variables are not memoized
      * @return The result.
      * @throws IllegalArgumentException if variable is not found and <pre>isEnableUndefinedVariableException()==true</pre>
      * @since 1.9
      */
     private Result substitute(final TextStringBuilder builder, final int offset, final int length,
-        List<String> priorVariables) {
+        PriorVariables priorVariables, final Map<String, String> memo) {
         Objects.requireNonNull(builder, "builder");
         final StringMatcher prefixMatcher = getVariablePrefixMatcher();
         final StringMatcher suffixMatcher = getVariableSuffixMatcher();
         final char escapeCh = getEscapeChar();
+        final StringSubstitutorListener listener = getListener();
         final StringMatcher valueDelimMatcher = getValueDelimiterMatcher();
         final boolean substitutionInVariablesEnabled = isEnableSubstitutionInVariables();
         final boolean substitutionInValuesDisabled = isDisableSubstitutionInValues();
@@ -1426,6 +1726,11 @@ public class StringSubstitutor {
         int pos = offset;
         int escPos = -1;
         outer: while (pos < bufEnd) {
+            // skip literal text up to the next prefix in one scan
+            pos = prefixMatcher.indexOf(builder.getBuffer(), pos, offset, bufEnd);
+            if (pos < 0) {
+                break;
+            }
             final int startMatchLen = prefixMatcher.isMatch(builder, pos, offset, bufEnd);
             if (startMatchLen == 0) {
                 pos++;
@@ -1475,9 +1780,20 @@ public class StringSubstitutor {
                             // get var name
                             String varNameExpr = builder.midString(startPos + startMatchLen,
                                 pos - startPos - startMatchLen);
+                            // on the first call initialize priorVariables
+                            if (priorVariables == null) {
+                                final String source = builder.midString(offset, length + lengthChange);
+                                priorVariables = new PriorVariables(source, 0, source.length());
+                            }
                             if (substitutionInVariablesEnabled) {
                                 final TextStringBuilder bufName = new TextStringBuilder(varNameExpr);
-                                substitute(bufName, 0, bufName.length());
+                                if (isSubstituteOverridable()) {
+                                    // a subclass sees each variable name substitution
+                                    substitute(bufName, 0, bufName.length());
+                                } else {
+                                    // the name is part of the substitution, a cycle through it is reported
+                                    substitute(bufName, 0, bufName.length(), priorVariables, memo);
+                                }
                                 varNameExpr = bufName.toString();
                             }
                             pos += endMatchLen;
@@ -1485,50 +1801,26 @@ public class StringSubstitutor {
 
                             String varName = varNameExpr;
                             String varDefaultValue = null;
-
                             if (valueDelimMatcher != null) {
-                                final char[] varNameExprChars = varNameExpr.toCharArray();
-                                int valueDelimiterMatchLen = 0;
-                                for (int i = 0; i < varNameExprChars.length; i++) {
-                                    // if there's any nested variable when nested variable substitution disabled,
-                                    // then stop resolving name and default value.
-                                    if (!substitutionInVariablesEnabled && prefixMatcher.isMatch(varNameExprChars, i, i,
-                                        varNameExprChars.length) != 0) {
-                                        break;
-                                    }
-                                    if (valueDelimMatcher.isMatch(varNameExprChars, i, 0,
-                                        varNameExprChars.length) != 0) {
-                                        valueDelimiterMatchLen = valueDelimMatcher.isMatch(varNameExprChars, i, 0,
-                                            varNameExprChars.length);
-                                        varName = varNameExpr.substring(0, i);
-                                        varDefaultValue = varNameExpr.substring(i + valueDelimiterMatchLen);
-                                        break;
-                                    }
-                                }
-                            }
-
-                            // on the first call initialize priorVariables
-                            if (priorVariables == null) {
-                                priorVariables = new ArrayList<>();
-                                priorVariables.add(builder.midString(offset, length));
+                                final String[] nameAndDefault = splitVariable(varNameExpr);
+                                varName = nameAndDefault[0];
+                                varDefaultValue = nameAndDefault[1];
                             }
 
                             // handle cyclic substitution
                             checkCyclicSubstitution(varName, priorVariables);
-                            priorVariables.add(varName);
+                            priorVariables.names.add(varName);
 
                             // resolve the variable
-                            String varValue = resolveVariable(varName, builder, startPos, endPos);
-                            if (varValue == null) {
-                                varValue = varDefaultValue;
-                            }
+                            final String varValue = resolveVariable(varName, varDefaultValue, builder, startPos,
+                                endPos, memo, listener);
                             if (varValue != null) {
                                 final int varLen = varValue.length();
                                 builder.replace(startPos, endPos, varValue);
                                 altered = true;
                                 int change = 0;
                                 if (!substitutionInValuesDisabled) { // recursive replace
-                                    change = substitute(builder, startPos, varLen, priorVariables).lengthChange;
+                                    change = substitute(builder, startPos, varLen, priorVariables, memo).lengthChange;
                                 }
                                 change = change + varLen - (endPos - startPos);
                                 pos += change;
@@ -1541,7 +1833,7 @@ public class StringSubstitutor {
                             }
 
                             // remove variable from the cyclic stack
-                            priorVariables.remove(priorVariables.size() - 1);
+                            priorVariables.names.remove(varName);
                             break;
                         }
                         nestedVarCount--;
@@ -1553,6 +1845,21 @@ public class StringSubstitutor {
         return new Result(altered, lengthChange);
     }
 
+    /**
+     * Creates an immutable, thread-safe copy of this instance with its current settings.
+     * <p>
+     * The returned instance can be shared by many threads without synchronization, provided the {@link StringLookup} is
+     * thread-safe. Later changes to this instance do not affect the returned instance.
+     * </p>
+     *
+     * @return an immutable copy of this instance
+     * @see ImmutableStringSubstitutor
+     * @since 1.14.0
+     */
+    public ImmutableStringSubstitutor toImmutable() {
+        return new ImmutableStringSubstitutor(this);
+    }
+
     /**
      * Returns a string representation of the object.
      *
@@ -1564,23 +1871,27 @@ public class StringSubstitutor {
         // @formatter:off
         return new StringBuilder()
             .append("StringSubstitutor [disableSubstitutionInValues=")
-            .append(disableSubstitutionInValues)
+            .append(isDisableSubstitutionInValues())
             .append(", enableSubstitutionInVariables=")
-            .append(enableSubstitutionInVariables)
+            .append(isEnableSubstitutionInVariables())
             .append(", enableUndefinedVariableException=")
-            .append(failOnUndefinedVariable)
+            .append(isEnableUndefinedVariableException())
             .append(", escapeChar=")
-            .append(escapeChar)
+            .append(getEscapeChar())
+            .append(", listener=")
+            .append(getListener())
+            .append(", memoizeVariables=")
+            .append(isMemoizeVariables())
             .append(", prefixMatcher=")
-            .append(prefixMatcher)
+            .append(getVariablePrefixMatcher())
             .append(", preserveEscapes=")
-            .append(preserveEscapes)
+            .append(isPreserveEscapes())
             .append(", suffixMatcher=")
-            .append(suffixMatcher)
+            .append(getVariableSuffixMatcher())
             .append(", valueDelimiterMatcher=")
-            .append(valueDelimiterMatcher)
+            .append(getValueDelimiterMatcher())
             .append(", variableResolver=")
-            .append(variableResolver)
+            .append(getStringLookup())
             .append("]")
             .toString();
         // @formatter:on
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.text;
+
+/**
+ * Receives events from a {@link StringSubstitutor}, for example, to export metrics.
+ * <p>
+ * Install a listener with {@link StringSubstitutor#setListener(StringSubstitutorListener)}. All methods have empty
+ * default implementations, so an implementation only overrides the events it needs. Listeners are called on the thread
+ * performing the substitution and should return quickly; a listener shared by several threads must be thread-safe.
+ * </p>
+ * <p>
+ * Variable values are not passed to listeners since they may be secrets. To measure lookups per prefix, such as
+ * {@code env} or {@code file}, install a {@link org.apache.commons.text.lookup.StringLookupListener} on the
+ * interpolator lookup.
+ * </p>
+ * <p>
+ * When no listener is installed, a substitution does not measure time or create events.
+ * </p>
+ *
+ * @see StringSubstitutor#setListener(StringSubstitutorListener)
+ * @since 1.14.0
+ */
+public interface StringSubstitutorListener {
+
+    /**
+     * Called when the default value of a variable is used because the variable could not be resolved.
+     *
+     * @param variableName the variable name.
+     */
+    default void onDefaultValue(final String variableName) {
+        // empty
+    }
+
+    /**
+     * Called when a substitution completes, once per {@code replace} call or template render.
+     *
+     * @param nanos the time the substitution took, in nanoseconds.
+     */
+    default void onSubstitution(final long nanos) {
+        // empty
+    }
+
+    /**
+     * Called when a variable without a default value could not be resolved, before any exception is thrown for it.
+     *
+     * @param variableName the variable name.
+     */
+    default void onUndefinedVariable(final String variableName) {
+        // empty
+    }
+
+    /**
+     * Called when a variable is resolved to a value.
+     *
+     * @param variableName the variable name.
+     * @param nanos the time the lookup took, in nanoseconds.
+     */
+    default void onVariableResolved(final String variableName, final long nanos) {
+        // empty
+    }
+}
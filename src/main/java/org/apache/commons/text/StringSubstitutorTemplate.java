@@ -0,0 +1,823 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.text;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.text.lookup.AsyncStringLookup;
+import org.apache.commons.text.lookup.StringLookup;
+import org.apache.commons.text.matcher.StringMatcher;
+
+/**
+ * A template parsed once by a {@link StringSubstitutor} and rendered any number of times.
+ * <p>
+ * A {@link StringSubstitutor} scans its source text for variables on each {@code replace} call. When the same template
+ * is rendered many times, {@link StringSubstitutor#compile(String)} lets you pay the scanning cost once: the template is
+ * split into literal segments and variable references (including default values and nested variable names), and each
+ * call to {@link #render(StringLookup)} only resolves the variables and concatenates the segments.
+ * </p>
+ *
+ * <pre>
+ * StringSubstitutorTemplate template = new StringSubstitutor().compile("Hello ${name:-stranger}!");
+ * String greeting = template.render(StringLookupFactory.INSTANCE.mapStringLookup(map));
+ * </pre>
+ * <p>
+ * The {@link #render(StringLookup, Appendable)} methods write literal segments and resolved values straight to an
+ * {@link Appendable} such as a {@link Writer}, without building the whole result in memory.
+ * </p>
+ * <p>
+ * The {@code renderAll} methods render a template once per {@link StringLookup}, for example once per row of a data
+ * set, reusing scratch buffers and optionally spreading the work over a {@link ForkJoinPool} while keeping the results
+ * in input order.
+ * </p>
+ * <p>
+ * The {@link #renderAsync(AsyncStringLookup)} method starts the lookups of all variables of the template at once and
+ * renders the result when they complete, so slow lookups, like DNS or URL lookups, run concurrently.
+ * </p>
+ * <p>
+ * A template captures the prefix, suffix, escape character, value delimiter and substitution flags of its
+ * {@link StringSubstitutor} when it is compiled; later changes to the substitutor do not affect it. Variable values are
+ * resolved directly from a {@link StringLookup}, so overrides of
+ * {@link StringSubstitutor#resolveVariable(String, TextStringBuilder, int, int)} are not consulted. Values are
+ * substituted recursively unless substitution in values is disabled, and cyclic references are detected as they are by
+ * {@link StringSubstitutor}.
+ * </p>
+ * <h2>Thread Safety</h2>
+ * <p>
+ * Instances are immutable and may be rendered concurrently, provided the {@link StringLookup} used is thread-safe.
+ * </p>
+ *
+ * @see StringSubstitutor#compile(String)
+ * @since 1.14.0
+ */
+public final class StringSubstitutorTemplate {
+
+    /**
+     * The substitution settings shared by a template and the templates compiled from its variable values.
+     */
+    private static final class Config {
+
+        /** Whether substitution in variable values is disabled. */
+        private final boolean disableSubstitutionInValues;
+
+        /** Whether substitution in variable names is enabled. */
+        private final boolean enableSubstitutionInVariables;
+
+        /** Whether an exception should be thrown on undefined variable. */
+        private final boolean failOnUndefinedVariable;
+
+        /** The escape character. */
+        private final char escapeChar;
+
+        /** Receives render events, may be null. */
+        private final StringSubstitutorListener listener;
+
+        /** Whether each variable is resolved once per render. */
+        private final boolean memoizeVariables;
+
+        /** The variable prefix. */
+        private final StringMatcher prefixMatcher;
+
+        /** Whether escapes should be preserved. */
+        private final boolean preserveEscapes;
+
+        /** The variable suffix. */
+        private final StringMatcher suffixMatcher;
+
+        /** The default variable value delimiter, may be null. */
+        private final StringMatcher valueDelimiterMatcher;
+
+        /** The lookup used by {@link StringSubstitutorTemplate#render()}, may be null. */
+        private final StringLookup stringLookup;
+
+        private Config(final StringSubstitutor substitutor) {
+            disableSubstitutionInValues = substitutor.isDisableSubstitutionInValues();
+            enableSubstitutionInVariables = substitutor.isEnableSubstitutionInVariables();
+            failOnUndefinedVariable = substitutor.isEnableUndefinedVariableException();
+            escapeChar = substitutor.getEscapeChar();
+            listener = substitutor.getListener();
+            memoizeVariables = substitutor.isMemoizeVariables();
+            prefixMatcher = substitutor.getVariablePrefixMatcher();
+            preserveEscapes = substitutor.isPreserveEscapes();
+            suffixMatcher = substitutor.getVariableSuffixMatcher();
+            valueDelimiterMatcher = substitutor.getValueDelimiterMatcher();
+            stringLookup = substitutor.getStringLookup();
+        }
+    }
+
+    /**
+     * Renders a range of lookups into a shared result array, splitting the range across a fork-join pool.
+     */
+    private final class RenderAction extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /** The lookups to render. */
+        private final List<? extends StringLookup> stringLookups;
+
+        /** The results, at the same index as their lookup. */
+        private final String[] results;
+
+        /** The first index to render. */
+        private final int from;
+
+        /** The last index (exclusive) to render. */
+        private final int to;
+
+        /** The largest range rendered without splitting. */
+        private final int threshold;
+
+        private RenderAction(final List<? extends StringLookup> stringLookups, final String[] results, final int from,
+            final int to, final int threshold) {
+            this.stringLookups = stringLookups;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                final StringBuilder scratch = new StringBuilder(text.length());
+                for (int i = from; i < to; i++) {
+                    results[i] = render(stringLookups.get(i), scratch);
+                }
+            } else {
+                final int middle = (from + to) >>> 1;
+                invokeAll(new RenderAction(stringLookups, results, from, middle, threshold),
+                    new RenderAction(stringLookups, results, middle, to, threshold));
+            }
+        }
+    }
+
+    /**
+     * A variable reference in a template.
+     */
+    private static final class Variable {
+
+        /** The start of the whole variable reference, including the prefix, in the template text. */
+        private final int start;
+
+        /** The end (exclusive) of the whole variable reference, including the suffix, in the template text. */
+        private final int end;
+
+        /** The variable name, null if the name must be computed from {@link #nameTemplate}. */
+        private final String name;
+
+        /** The default value, may be null. */
+        private final String defaultValue;
+
+        /** The template for the name expression when it contains nested variables, otherwise null. */
+        private final StringSubstitutorTemplate nameTemplate;
+
+        private Variable(final int start, final int end, final String name, final String defaultValue,
+            final StringSubstitutorTemplate nameTemplate) {
+            this.start = start;
+            this.end = end;
+            this.name = name;
+            this.defaultValue = defaultValue;
+            this.nameTemplate = nameTemplate;
+        }
+    }
+
+    /**
+     * The settings used to compile and render this template.
+     */
+    private final Config config;
+
+    /**
+     * The template as given to {@link StringSubstitutor#compile(String)}, a {@code String} except for the transient
+     * templates used by {@link StringSubstitutor#replaceTo(CharSequence, Appendable)}.
+     */
+    private final CharSequence source;
+
+    /**
+     * The template text with escape characters removed; literal segments and variables index into this text.
+     */
+    private final CharSequence text;
+
+    /**
+     * The start of each literal segment in {@link #text}, one more entry than {@link #variables}.
+     */
+    private final int[] literalStarts;
+
+    /**
+     * The end (exclusive) of each literal segment in {@link #text}, one more entry than {@link #variables}.
+     */
+    private final int[] literalEnds;
+
+    /**
+     * The variables, each one follows the literal segment at the same index.
+     */
+    private final Variable[] variables;
+
+    /**
+     * Compiles a template with the settings of the given substitutor.
+     *
+     * @param substitutor the substitutor providing the settings.
+     * @param source the template text.
+     */
+    StringSubstitutorTemplate(final StringSubstitutor substitutor, final CharSequence source) {
+        this(new Config(substitutor), source);
+    }
+
+    /**
+     * Compiles a template.
+     *
+     * @param config the settings.
+     * @param source the template text.
+     */
+    private StringSubstitutorTemplate(final Config config, final CharSequence source) {
+        this.config = config;
+        this.source = source;
+        // only copy the source when an escape character must be removed
+        TextStringBuilder builder = null;
+        CharSequence chars = source;
+        final List<Variable> variableList = new ArrayList<>();
+        final List<int[]> literalList = new ArrayList<>();
+        final StringMatcher prefixMatcher = config.prefixMatcher;
+        final StringMatcher suffixMatcher = config.suffixMatcher;
+        final char escapeCh = config.escapeChar;
+        final boolean substitutionInVariablesEnabled = config.enableSubstitutionInVariables;
+        int bufEnd = chars.length();
+        int literalStart = 0;
+        int pos = 0;
+        int escPos = -1;
+        outer: while (pos < bufEnd) {
+            final int startMatchLen = prefixMatcher.isMatch(chars, pos, 0, bufEnd);
+            if (startMatchLen == 0) {
+                pos++;
+            } else {
+                // found variable start marker
+                if (pos > literalStart && chars.charAt(pos - 1) == escapeCh) {
+                    // escape detected
+                    if (config.preserveEscapes) {
+                        // keep escape
+                        pos++;
+                        continue;
+                    }
+                    // mark esc ch for deletion if we find a complete variable
+                    escPos = pos - 1;
+                }
+                // find suffix
+                int startPos = pos;
+                pos += startMatchLen;
+                int endMatchLen = 0;
+                int nestedVarCount = 0;
+                while (pos < bufEnd) {
+                    if (substitutionInVariablesEnabled && prefixMatcher.isMatch(chars, pos, 0, bufEnd) != 0) {
+                        // found a nested variable start
+                        endMatchLen = prefixMatcher.isMatch(chars, pos, 0, bufEnd);
+                        nestedVarCount++;
+                        pos += endMatchLen;
+                        continue;
+                    }
+                    endMatchLen = suffixMatcher.isMatch(chars, pos, 0, bufEnd);
+                    if (endMatchLen == 0) {
+                        pos++;
+                    } else {
+                        // found variable end marker
+                        if (nestedVarCount == 0) {
+                            if (escPos >= 0) {
+                                // delete escape, the variable stays literal text
+                                if (builder == null) {
+                                    builder = new TextStringBuilder(source);
+                                    chars = builder;
+                                }
+                                builder.deleteCharAt(escPos);
+                                escPos = -1;
+                                bufEnd--;
+                                pos = startPos + 1;
+                                startPos--;
+                                continue outer;
+                            }
+                            final String varNameExpr = chars.subSequence(startPos + startMatchLen, pos).toString();
+                            pos += endMatchLen;
+                            literalList.add(new int[] {literalStart, startPos});
+                            variableList.add(createVariable(startPos, pos, varNameExpr));
+                            literalStart = pos;
+                            break;
+                        }
+                        nestedVarCount--;
+                        pos += endMatchLen;
+                    }
+                }
+            }
+        }
+        literalList.add(new int[] {literalStart, bufEnd});
+        this.text = builder == null ? source : builder.toString();
+        this.variables = variableList.toArray(new Variable[0]);
+        this.literalStarts = new int[literalList.size()];
+        this.literalEnds = new int[literalList.size()];
+        for (int i = 0; i < literalStarts.length; i++) {
+            literalStarts[i] = literalList.get(i)[0];
+            literalEnds[i] = literalList.get(i)[1];
+        }
+    }
+
+    /**
+     * Appends a portion of the given text, using the bulk {@link Writer#write(String, int, int)} when possible.
+     *
+     * @param appendable the target.
+     * @param text the source text.
+     * @param start the start index.
+     * @param end the end index (exclusive).
+     * @throws IOException if an I/O error occurs.
+     */
+    private static void append(final Appendable appendable, final CharSequence text, final int start, final int end)
+        throws IOException {
+        if (start == end) {
+            return;
+        }
+        if (appendable instanceof Writer && text instanceof String) {
+            ((Writer) appendable).write((String) text, start, end - start);
+        } else {
+            appendable.append(text, start, end);
+        }
+    }
+
+    /**
+     * Checks if the specified variable is already in the stack of variables.
+     *
+     * @param varName the variable name to check
+     * @param rootSource the source of the template being rendered
+     * @param priorVariables the prior variables, in resolution order
+     */
+    private static void checkCyclicSubstitution(final String varName, final CharSequence rootSource,
+        final Set<String> priorVariables) {
+        if (!priorVariables.contains(varName)) {
+            return;
+        }
+        final TextStringBuilder buf = new TextStringBuilder(256);
+        buf.append("Infinite loop in property interpolation of ");
+        buf.append(rootSource);
+        buf.append(": ");
+        buf.appendWithSeparators(priorVariables, "->");
+        throw new IllegalStateException(buf.toString());
+    }
+
+    /**
+     * Adds the names of the variables of this template and of its nested variable names to the given set.
+     *
+     * @param names the set receiving the names.
+     */
+    private void collectVariableNames(final Set<String> names) {
+        for (final Variable variable : variables) {
+            if (variable.name != null) {
+                names.add(variable.name);
+            } else {
+                variable.nameTemplate.collectVariableNames(names);
+            }
+        }
+    }
+
+    /**
+     * Creates a task rendering this template once for each of the given lookups.
+     *
+     * @param stringLookups the lookups.
+     * @param parallelism the number of threads expected to run the task.
+     * @return a new task returning the rendered texts in the order of {@code stringLookups}.
+     */
+    private ForkJoinTask<List<String>> createRenderAllTask(final List<? extends StringLookup> stringLookups,
+        final int parallelism) {
+        final String[] results = new String[stringLookups.size()];
+        // a few ranges per thread to balance uneven renders
+        final int threshold = Math.max(1, results.length / (Math.max(1, parallelism) * 4));
+        final RenderAction action = new RenderAction(stringLookups, results, 0, results.length, threshold);
+        return ForkJoinTask.adapt(() -> {
+            action.invoke();
+            return Arrays.asList(results);
+        });
+    }
+
+    /**
+     * Creates a variable, splitting its name from its default value when the name expression has no nested variables.
+     *
+     * @param start the start of the variable reference.
+     * @param end the end of the variable reference.
+     * @param varNameExpr the text between the prefix and the suffix.
+     * @return a new variable.
+     */
+    private Variable createVariable(final int start, final int end, final String varNameExpr) {
+        if (config.enableSubstitutionInVariables) {
+            final StringSubstitutorTemplate nameTemplate = new StringSubstitutorTemplate(config, varNameExpr);
+            if (nameTemplate.variables.length > 0) {
+                return new Variable(start, end, null, null, nameTemplate);
+            }
+            final String[] nameAndDefault = splitVariable(nameTemplate.text.toString());
+            return new Variable(start, end, nameAndDefault[0], nameAndDefault[1], null);
+        }
+        final String[] nameAndDefault = splitVariable(varNameExpr);
+        return new Variable(start, end, nameAndDefault[0], nameAndDefault[1], null);
+    }
+
+    /**
+     * Gets the template text this instance was compiled from.
+     *
+     * @return the template text.
+     */
+    public String getTemplate() {
+        return source.toString();
+    }
+
+    /**
+     * Wraps the given lookup to resolve each variable once per render when variables are memoized.
+     *
+     * @param stringLookup the lookup, may be null.
+     * @return the lookup to use for one render.
+     */
+    private StringLookup memoize(final StringLookup stringLookup) {
+        if (!config.memoizeVariables || stringLookup == null) {
+            return stringLookup;
+        }
+        final Map<String, String> memo = new HashMap<>();
+        return key -> {
+            if (memo.containsKey(key)) {
+                return memo.get(key);
+            }
+            final String value = stringLookup.lookup(key);
+            memo.put(key, value);
+            return value;
+        };
+    }
+
+    /**
+     * Renders this template, resolving variables with the {@link StringLookup} of the {@link StringSubstitutor} that
+     * compiled it.
+     *
+     * @return the rendered text.
+     * @throws IllegalArgumentException if a variable is not found and enableUndefinedVariableException is true.
+     * @throws IllegalStateException if a cyclic substitution is detected.
+     */
+    public String render() {
+        return render(config.stringLookup);
+    }
+
+    /**
+     * Renders this template to the given {@link Appendable}, resolving variables with the {@link StringLookup} of the
+     * {@link StringSubstitutor} that compiled it.
+     *
+     * @param appendable the target, for example a {@link Writer} or a {@link StringBuilder}, not null.
+     * @throws IOException if an I/O error occurs.
+     * @throws IllegalArgumentException if a variable is not found and enableUndefinedVariableException is true.
+     * @throws IllegalStateException if a cyclic substitution is detected.
+     * @see #render(StringLookup, Appendable)
+     */
+    public void render(final Appendable appendable) throws IOException {
+        render(config.stringLookup, appendable);
+    }
+
+    /**
+     * Renders this template, resolving variables with the given {@link StringLookup}.
+     *
+     * @param stringLookup the lookup resolving variables, may be null to leave all variables unresolved.
+     * @return the rendered text.
+     * @throws IllegalArgumentException if a variable is not found and enableUndefinedVariableException is true.
+     * @throws IllegalStateException if a cyclic substitution is detected.
+     */
+    public String render(final StringLookup stringLookup) {
+        return render(stringLookup, new StringBuilder(text.length()));
+    }
+
+    /**
+     * Renders this template once for each of the given lookups, in order.
+     * <p>
+     * This is the batch equivalent of calling {@link #render(StringLookup)} in a loop, except that a single scratch
+     * buffer is reused for all renders. To render one template against a list of maps, convert each map with
+     * {@link org.apache.commons.text.lookup.StringLookupFactory#mapStringLookup(java.util.Map)}.
+     * </p>
+     *
+     * @param stringLookups the lookups, one per rendered result, not null; an element may be null to leave all variables
+     *        unresolved.
+     * @return the rendered texts, in the iteration order of {@code stringLookups}.
+     * @throws IllegalArgumentException if a variable is not found and enableUndefinedVariableException is true.
+     * @throws IllegalStateException if a cyclic substitution is detected.
+     */
+    public List<String> renderAll(final Iterable<? extends StringLookup> stringLookups) {
+        Objects.requireNonNull(stringLookups, "stringLookups");
+        final List<String> results = new ArrayList<>();
+        final StringBuilder scratch = new StringBuilder(text.length());
+        for (final StringLookup stringLookup : stringLookups) {
+            results.add(render(stringLookup, scratch));
+        }
+        return results;
+    }
+
+    /**
+     * Renders this template once for each of the given lookups in the given fork-join pool.
+     * <p>
+     * The lookups are split into ranges rendered concurrently, each range reusing one scratch buffer. The results keep
+     * the iteration order of {@code stringLookups}. The lookups must be thread-safe if they are shared between
+     * elements.
+     * </p>
+     *
+     * @param stringLookups the lookups, one per rendered result, not null; an element may be null to leave all variables
+     *        unresolved.
+     * @param pool the pool rendering the lookups, not null.
+     * @return the rendered texts, in the iteration order of {@code stringLookups}.
+     * @throws IllegalArgumentException if a variable is not found and enableUndefinedVariableException is true.
+     * @throws IllegalStateException if a cyclic substitution is detected.
+     */
+    public List<String> renderAll(final Iterable<? extends StringLookup> stringLookups, final ForkJoinPool pool) {
+        Objects.requireNonNull(stringLookups, "stringLookups");
+        Objects.requireNonNull(pool, "pool");
+        return pool.invoke(createRenderAllTask(toList(stringLookups), pool.getParallelism()));
+    }
+
+    /**
+     * Renders this template once for each of the given lookups.
+     * <p>
+     * If the stream is {@link Stream#isParallel() parallel}, the lookups are rendered concurrently in the common
+     * fork-join pool (or the pool of the calling task) as described in {@link #renderAll(Iterable, ForkJoinPool)};
+     * otherwise they are rendered sequentially as described in {@link #renderAll(Iterable)}. In both cases the results
+     * keep the encounter order of the stream.
+     * </p>
+     *
+     * @param stringLookups the lookups, one per rendered result, not null; an element may be null to leave all variables
+     *        unresolved.
+     * @return the rendered texts, in the encounter order of {@code stringLookups}.
+     * @throws IllegalArgumentException if a variable is not found and enableUndefinedVariableException is true.
+     * @throws IllegalStateException if a cyclic substitution is detected.
+     */
+    public List<String> renderAll(final Stream<? extends StringLookup> stringLookups) {
+        Objects.requireNonNull(stringLookups, "stringLookups");
+        if (!stringLookups.isParallel()) {
+            final StringBuilder scratch = new StringBuilder(text.length());
+            return stringLookups.map(stringLookup -> render(stringLookup, scratch)).collect(Collectors.toList());
+        }
+        final List<StringLookup> list = stringLookups.collect(Collectors.toList());
+        return createRenderAllTask(list, ForkJoinTask.inForkJoinPool() ? ForkJoinTask.getPool().getParallelism()
+            : ForkJoinPool.getCommonPoolParallelism()).invoke();
+    }
+
+    /**
+     * Renders this template, resolving its variables concurrently with the given {@link AsyncStringLookup}.
+     * <p>
+     * The lookups of all variable names known from the template text, including the variables in nested variable names,
+     * are started at once, each distinct name once. When they have all completed, the template is rendered from their
+     * values as {@link #render(StringLookup)} would, so the render takes about as long as the slowest lookup instead
+     * of the sum of all lookups. Names only known during the render, like the variables in variable values and in default
+     * values, are looked up with the blocking {@link AsyncStringLookup#lookup(String)} of the given lookup when they are
+     * reached.
+     * </p>
+     * <p>
+     * The render runs in the thread completing the last lookup, or in the calling thread if all lookups are already
+     * complete. The lookups created by
+     * {@link org.apache.commons.text.lookup.StringLookupFactory#asyncStringLookup(StringLookup, java.util.concurrent.Executor)}
+     * look up blocking in the calling thread, so the render never waits for a task queued on the executor running it.
+     * A custom lookup whose {@code lookup} waits for {@code lookupAsync} may deadlock a bounded executor.
+     * </p>
+     *
+     * @param stringLookup the lookup resolving variables, may be null to leave all variables unresolved.
+     * @return a future completed with the rendered text, or completed exceptionally with a {@link
+     *         java.util.concurrent.CompletionException} caused by the exception of a failed lookup, an
+     *         {@link IllegalArgumentException} if a variable is not found and enableUndefinedVariableException is true,
+     *         or an {@link IllegalStateException} if a cyclic substitution is detected.
+     * @see org.apache.commons.text.lookup.StringLookupFactory#asyncStringLookup(StringLookup, java.util.concurrent.Executor)
+     */
+    public CompletableFuture<String> renderAsync(final AsyncStringLookup stringLookup) {
+        if (stringLookup == null) {
+            return CompletableFuture.supplyAsync(() -> render((StringLookup) null), Runnable::run);
+        }
+        final Set<String> names = new LinkedHashSet<>();
+        collectVariableNames(names);
+        final Map<String, CompletableFuture<String>> started = new HashMap<>();
+        for (final String name : names) {
+            started.put(name, stringLookup.lookupAsync(name));
+        }
+        final AsyncStringLookup startedLookup = new AsyncStringLookup() {
+
+            @Override
+            public String lookup(final String key) {
+                // a name not started up front is looked up blocking: waiting for a new asynchronous lookup from an
+                // executor thread could deadlock a bounded executor
+                return started.containsKey(key) ? AsyncStringLookup.super.lookup(key) : stringLookup.lookup(key);
+            }
+
+            @Override
+            public CompletableFuture<String> lookupAsync(final String key) {
+                final CompletableFuture<String> future = started.get(key);
+                return future != null ? future : CompletableFuture.completedFuture(stringLookup.lookup(key));
+            }
+        };
+        return CompletableFuture.allOf(started.values().toArray(new CompletableFuture<?>[0]))
+            .handle((ignored, e) -> render(startedLookup));
+    }
+
+    /**
+     * Renders this template to the given {@link Appendable}, resolving variables with the given {@link StringLookup}.
+     * <p>
+     * Literal segments and resolved values are written to the target as they are produced, without building the whole
+     * result in memory first. If a variable cannot be resolved and enableUndefinedVariableException is true, the
+     * exception is thrown after the text preceding the variable has been written.
+     * </p>
+     *
+     * @param stringLookup the lookup resolving variables, may be null to leave all variables unresolved.
+     * @param appendable the target, for example a {@link Writer} or a {@link StringBuilder}, not null.
+     * @throws IOException if an I/O error occurs.
+     * @throws IllegalArgumentException if a variable is not found and enableUndefinedVariableException is true.
+     * @throws IllegalStateException if a cyclic substitution is detected.
+     */
+    public void render(final StringLookup stringLookup, final Appendable appendable) throws IOException {
+        Objects.requireNonNull(appendable, "appendable");
+        renderRoot(stringLookup, appendable);
+    }
+
+    /**
+     * Renders this template into a reusable scratch buffer.
+     *
+     * @param stringLookup the lookup resolving variables, may be null.
+     * @param scratch the buffer, cleared before use.
+     * @return the rendered text.
+     */
+    private String render(final StringLookup stringLookup, final StringBuilder scratch) {
+        if (variables.length == 0 && config.listener == null) {
+            return text.toString();
+        }
+        scratch.setLength(0);
+        try {
+            renderRoot(stringLookup, scratch);
+        } catch (final IOException e) {
+            // a StringBuilder does not throw IOException
+            throw new UncheckedIOException(e);
+        }
+        return scratch.toString();
+    }
+
+    /**
+     * Renders this template to the given target.
+     *
+     * @param stringLookup the lookup resolving variables, may be null.
+     * @param appendable the target.
+     * @param rootSource the source of the template being rendered, null when priorVariables is null.
+     * @param priorVariables the stack keeping track of the replaced variables, may be null.
+     * @throws IOException if an I/O error occurs.
+     */
+    private void render(final StringLookup stringLookup, final Appendable appendable, CharSequence rootSource,
+        Set<String> priorVariables) throws IOException {
+        for (int i = 0; i < variables.length; i++) {
+            append(appendable, text, literalStarts[i], literalEnds[i]);
+            final Variable variable = variables[i];
+            String varName = variable.name;
+            String varDefaultValue = variable.defaultValue;
+            if (variable.nameTemplate != null) {
+                final StringBuilder nameBuilder = new StringBuilder();
+                variable.nameTemplate.render(stringLookup, nameBuilder, null, null);
+                final String[] nameAndDefault = splitVariable(nameBuilder.toString());
+                varName = nameAndDefault[0];
+                varDefaultValue = nameAndDefault[1];
+            }
+            // on the first variable initialize priorVariables
+            if (priorVariables == null) {
+                priorVariables = new LinkedHashSet<>();
+                rootSource = source;
+            }
+            // handle cyclic substitution
+            checkCyclicSubstitution(varName, rootSource, priorVariables);
+            priorVariables.add(varName);
+            // resolve the variable
+            final StringSubstitutorListener listener = config.listener;
+            String varValue;
+            if (listener == null) {
+                varValue = stringLookup != null ? stringLookup.lookup(varName) : null;
+            } else {
+                final long start = System.nanoTime();
+                varValue = stringLookup != null ? stringLookup.lookup(varName) : null;
+                if (varValue != null) {
+                    listener.onVariableResolved(varName, System.nanoTime() - start);
+                }
+            }
+            if (varValue == null) {
+                varValue = varDefaultValue;
+                if (listener != null) {
+                    if (varValue != null) {
+                        listener.onDefaultValue(varName);
+                    } else {
+                        listener.onUndefinedVariable(varName);
+                    }
+                }
+            }
+            if (varValue != null) {
+                if (config.disableSubstitutionInValues) {
+                    append(appendable, varValue, 0, varValue.length());
+                } else {
+                    // recursive replace
+                    new StringSubstitutorTemplate(config, varValue).render(stringLookup, appendable, rootSource,
+                        priorVariables);
+                }
+            } else if (config.failOnUndefinedVariable) {
+                throw new IllegalArgumentException(
+                    String.format("Cannot resolve variable '%s' (enableSubstitutionInVariables=%s).", varName,
+                        config.enableSubstitutionInVariables));
+            } else {
+                append(appendable, text, variable.start, variable.end);
+            }
+            // remove variable from the cyclic stack
+            priorVariables.remove(varName);
+        }
+        append(appendable, text, literalStarts[variables.length], literalEnds[variables.length]);
+    }
+
+    /**
+     * Renders this template as one top-level render, notifying the listener if there is one.
+     *
+     * @param stringLookup the lookup resolving variables, may be null.
+     * @param appendable the target.
+     * @throws IOException if an I/O error occurs.
+     */
+    private void renderRoot(final StringLookup stringLookup, final Appendable appendable) throws IOException {
+        final StringSubstitutorListener listener = config.listener;
+        if (listener == null) {
+            render(memoize(stringLookup), appendable, null, null);
+            return;
+        }
+        final long start = System.nanoTime();
+        render(memoize(stringLookup), appendable, null, null);
+        listener.onSubstitution(System.nanoTime() - start);
+    }
+
+    /**
+     * Copies the given lookups to a random access list.
+     *
+     * @param stringLookups the lookups.
+     * @return a list.
+     */
+    private static List<? extends StringLookup> toList(final Iterable<? extends StringLookup> stringLookups) {
+        if (stringLookups instanceof List && stringLookups instanceof RandomAccess) {
+            return (List<? extends StringLookup>) stringLookups;
+        }
+        final List<StringLookup> list = new ArrayList<>();
+        stringLookups.forEach(list::add);
+        return list;
+    }
+
+    /**
+     * Splits a variable name expression into the variable name and its default value.
+     *
+     * @param varNameExpr the text between the prefix and the suffix, with nested variables substituted.
+     * @return a two element array of the variable name and its default value, the default value may be null.
+     */
+    private String[] splitVariable(final String varNameExpr) {
+        final StringMatcher valueDelimMatcher = config.valueDelimiterMatcher;
+        if (valueDelimMatcher != null) {
+            final char[] varNameExprChars = varNameExpr.toCharArray();
+            for (int i = 0; i < varNameExprChars.length; i++) {
+                // if there's any nested variable when nested variable substitution disabled,
+                // then stop resolving name and default value.
+                if (!config.enableSubstitutionInVariables
+                    && config.prefixMatcher.isMatch(varNameExprChars, i, i, varNameExprChars.length) != 0) {
+                    break;
+                }
+                final int valueDelimiterMatchLen = valueDelimMatcher.isMatch(varNameExprChars, i, 0,
+                    varNameExprChars.length);
+                if (valueDelimiterMatchLen != 0) {
+                    return new String[] {varNameExpr.substring(0, i),
+                        varNameExpr.substring(i + valueDelimiterMatchLen)};
+                }
+            }
+        }
+        return new String[] {varNameExpr, null};
+    }
+
+    /**
+     * Returns a string representation of the object.
+     *
+     * @return a string representation of the object.
+     */
+    @Override
+    public String toString() {
+        return "StringSubstitutorTemplate [template=" + source + ", variables=" + variables.length + "]";
+    }
+}
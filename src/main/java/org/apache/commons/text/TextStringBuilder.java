@@ -2170,14 +2170,7 @@ public class TextStringBuilder implements CharSequence, Appendable, Serializable
         if (matcher == null || startIndex >= size) {
             return StringUtils.INDEX_NOT_FOUND;
         }
-        final int len = size;
-        final char[] buf = buffer;
-        for (int i = startIndex; i < len; i++) {
-            if (matcher.isMatch(buf, i, startIndex, len) > 0) {
-                return i;
-            }
-        }
-        return StringUtils.INDEX_NOT_FOUND;
+        return matcher.indexOf(buffer, startIndex, startIndex, size);
     }
 
     /**
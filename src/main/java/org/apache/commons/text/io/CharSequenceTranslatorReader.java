@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.text.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Objects;
+
+import org.apache.commons.text.translate.CharSequenceTranslator;
+
+/**
+ * A {@link Reader} that translates the characters read from an underlying reader with a
+ * {@link CharSequenceTranslator}, for example, to unescape a large XML or CSV export while it is read.
+ * <p>
+ * Characters are read and translated a chunk at a time, so memory use does not depend on the size of the text. A chunk
+ * is translated only up to {@code lookahead} characters before the end of the buffer. A sequence starting in a chunk,
+ * such as an entity, a Unicode or octal escape, or a surrogate pair, is therefore translated whole even when the
+ * underlying reader returns it across several reads. The default lookahead of 64 characters is well above the length
+ * of the sequences of the translators in {@link org.apache.commons.text.StringEscapeUtils}; a longer sequence, such as
+ * a numeric entity padded with many zeros, is translated as if the text ended after the lookahead.
+ * </p>
+ * <p>
+ * Translators working on the whole text at once, such as the CSV ones, translate each chunk on its own and are not
+ * suited to streaming. Mark and reset are not supported.
+ * </p>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ *
+ * @see CharSequenceTranslatorWriter
+ * @since 1.14.0
+ */
+public class CharSequenceTranslatorReader extends Reader {
+
+    /** The end-of-stream character marker. */
+    private static final int EOS = -1;
+
+    /** End-of-Stream flag. */
+    private boolean eos;
+
+    /** The underlying reader. */
+    private final Reader in;
+
+    /** The translated characters not read yet, from {@link #outputPos}. */
+    private final StringBuilder output = new StringBuilder();
+
+    /** The position of the next character to read in {@link #output}. */
+    private int outputPos;
+
+    /** Internal buffer for reading from the underlying reader. */
+    private final char[] readBuffer;
+
+    /** The characters not translated yet. */
+    private final TranslatorWindow window;
+
+    /**
+     * Constructs a new instance with a buffer size of 8192 characters and a lookahead of 64 characters.
+     *
+     * @param reader the underlying reader containing the text to translate.
+     * @param translator the translator.
+     * @throws NullPointerException if {@code reader} or {@code translator} is {@code null}.
+     */
+    public CharSequenceTranslatorReader(final Reader reader, final CharSequenceTranslator translator) {
+        this(reader, translator, TranslatorWindow.DEFAULT_BUFFER_SIZE, TranslatorWindow.DEFAULT_LOOKAHEAD);
+    }
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param reader the underlying reader containing the text to translate.
+     * @param translator the translator.
+     * @param bufferSize the number of characters read and translated at a time.
+     * @param lookahead the number of characters kept after the characters being translated, at least the length of the
+     *        longest sequence the translator translates.
+     * @throws NullPointerException if {@code reader} or {@code translator} is {@code null}.
+     * @throws IllegalArgumentException if {@code bufferSize} or {@code lookahead} is not positive.
+     */
+    public CharSequenceTranslatorReader(final Reader reader, final CharSequenceTranslator translator, final int bufferSize, final int lookahead) {
+        this.in = Objects.requireNonNull(reader, "reader");
+        this.window = new TranslatorWindow(translator, bufferSize, lookahead);
+        this.readBuffer = new char[bufferSize];
+    }
+
+    /**
+     * Closes the underlying reader.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Reads and translates chunks until translated characters are available or the end of the stream is reached.
+     *
+     * @return whether translated characters are available.
+     * @throws IOException If an I/O error occurs.
+     */
+    private boolean fill() throws IOException {
+        while (outputPos == output.length()) {
+            output.setLength(0);
+            outputPos = 0;
+            if (eos) {
+                return false;
+            }
+            final int count = in.read(readBuffer, 0, Math.min(readBuffer.length, window.available()));
+            if (count == EOS) {
+                eos = true;
+                window.translate(output, true);
+            } else {
+                window.append(readBuffer, 0, count);
+                window.translate(output, false);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads a single character.
+     *
+     * @return a character as an {@code int} or {@code -1} for end-of-stream.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public int read() throws IOException {
+        return fill() ? output.charAt(outputPos++) : EOS;
+    }
+
+    /**
+     * Reads characters into a portion of an array.
+     *
+     * @param target Target buffer.
+     * @param targetIndex Index in the target at which to start storing characters.
+     * @param targetLength Maximum number of characters to read.
+     * @return The number of characters read, or -1 on end of stream.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public int read(final char[] target, final int targetIndex, final int targetLength) throws IOException {
+        if (targetIndex < 0 || targetLength < 0 || targetLength > target.length - targetIndex) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (targetLength == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return EOS;
+        }
+        final int count = Math.min(targetLength, output.length() - outputPos);
+        output.getChars(outputPos, outputPos + count, target, targetIndex);
+        outputPos += count;
+        return count;
+    }
+
+    /**
+     * Tests whether translated characters are available without reading from the underlying reader.
+     *
+     * @return whether translated characters are available.
+     */
+    @Override
+    public boolean ready() {
+        return outputPos < output.length();
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.text.io;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+import org.apache.commons.text.translate.CharSequenceTranslator;
+
+/**
+ * A {@link Writer} that translates the characters written to it with a {@link CharSequenceTranslator}, for example, to
+ * escape a large XML or CSV export while it is written.
+ * <p>
+ * Characters are buffered and translated a chunk at a time, so memory use does not depend on the size of the text. A
+ * chunk is translated only up to {@code lookahead} characters before the end of the buffer. A sequence starting in a
+ * chunk, such as an entity, a Unicode or octal escape, or a surrogate pair, is therefore translated whole even when it
+ * is written across several calls. The default lookahead of 64 characters is well above the length of the sequences
+ * of the translators in {@link org.apache.commons.text.StringEscapeUtils}; a longer sequence, such as a numeric entity
+ * padded with many zeros, is translated as if the text ended after the lookahead.
+ * </p>
+ * <p>
+ * {@link #flush()} translates and flushes the text written so far, except for the last {@code lookahead} characters,
+ * which may start a sequence that is not complete yet. {@link #close()} translates the remaining characters. Translators
+ * working on the whole text at once, such as the CSV ones, translate each chunk on its own and are not suited to
+ * streaming.
+ * </p>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ *
+ * @see CharSequenceTranslatorReader
+ * @since 1.14.0
+ */
+public class CharSequenceTranslatorWriter extends FilterWriter {
+
+    /** Whether this writer is closed. */
+    private boolean closed;
+
+    /** The characters not translated yet. */
+    private final TranslatorWindow window;
+
+    /**
+     * Constructs a new instance with a buffer size of 8192 characters and a lookahead of 64 characters.
+     *
+     * @param writer the underlying writer receiving the translated text.
+     * @param translator the translator.
+     * @throws NullPointerException if {@code writer} or {@code translator} is {@code null}.
+     */
+    public CharSequenceTranslatorWriter(final Writer writer, final CharSequenceTranslator translator) {
+        this(writer, translator, TranslatorWindow.DEFAULT_BUFFER_SIZE, TranslatorWindow.DEFAULT_LOOKAHEAD);
+    }
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param writer the underlying writer receiving the translated text.
+     * @param translator the translator.
+     * @param bufferSize the number of characters translated at a time.
+     * @param lookahead the number of characters kept after the characters being translated, at least the length of the
+     *        longest sequence the translator translates.
+     * @throws NullPointerException if {@code writer} or {@code translator} is {@code null}.
+     * @throws IllegalArgumentException if {@code bufferSize} or {@code lookahead} is not positive.
+     */
+    public CharSequenceTranslatorWriter(final Writer writer, final CharSequenceTranslator translator, final int bufferSize, final int lookahead) {
+        super(writer);
+        this.window = new TranslatorWindow(translator, bufferSize, lookahead);
+    }
+
+    /**
+     * Translates the remaining characters and closes the underlying writer.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            window.translate(out, true);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Checks that this writer is not closed.
+     *
+     * @throws IOException if this writer is closed.
+     */
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    /**
+     * Translates the characters written so far, except for the last {@code lookahead} characters, and flushes the
+     * underlying writer.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        window.translate(out, false);
+        out.flush();
+    }
+
+    /**
+     * Writes characters.
+     *
+     * @param cbuf the characters.
+     * @param off the offset of the first character.
+     * @param len the number of characters.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public void write(final char[] cbuf, final int off, final int len) throws IOException {
+        ensureOpen();
+        int offset = off;
+        int remaining = len;
+        while (remaining > 0) {
+            final int count = Math.min(remaining, window.available());
+            window.append(cbuf, offset, count);
+            offset += count;
+            remaining -= count;
+            translateIfFull();
+        }
+    }
+
+    /**
+     * Writes a character.
+     *
+     * @param c the character.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public void write(final int c) throws IOException {
+        ensureOpen();
+        window.append(c);
+        translateIfFull();
+    }
+
+    /**
+     * Writes characters.
+     *
+     * @param str the characters.
+     * @param off the offset of the first character.
+     * @param len the number of characters.
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public void write(final String str, final int off, final int len) throws IOException {
+        ensureOpen();
+        int offset = off;
+        int remaining = len;
+        while (remaining > 0) {
+            final int count = Math.min(remaining, window.available());
+            window.append(str, offset, count);
+            offset += count;
+            remaining -= count;
+            translateIfFull();
+        }
+    }
+
+    /**
+     * Translates a chunk when the buffer is full.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    private void translateIfFull() throws IOException {
+        if (window.available() == 0) {
+            window.translate(out, false);
+        }
+    }
+}
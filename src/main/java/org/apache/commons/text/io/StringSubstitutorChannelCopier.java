@@ -0,0 +1,532 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.text.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.text.StringSubstitutor;
+import org.apache.commons.text.matcher.StringMatcher;
+
+/**
+ * Copies text from a byte channel or file to another, performing string substitution with a {@link StringSubstitutor}.
+ * <p>
+ * This class is meant for large inputs, like configuration bundles or SQL dumps: the input is decoded in large chunks,
+ * each chunk is scanned once for variables, literal runs are encoded straight to the output, and only the text from
+ * the first variable of a chunk on goes through the {@link StringSubstitutor}. A file input can also be memory-mapped
+ * instead of read.
+ * </p>
+ *
+ * <pre>
+ * StringSubstitutorChannelCopier.builder()
+ *     .setStringSubstitutor(new StringSubstitutor(StringLookupFactory.INSTANCE.environmentVariableStringLookup()))
+ *     .setCharset(StandardCharsets.UTF_8)
+ *     .setMemoryMap(true)
+ *     .get()
+ *     .copy(Paths.get("dump.sql.template"), Paths.get("dump.sql"));
+ * </pre>
+ * <p>
+ * A variable that spans a chunk boundary is held back until its suffix has been read, so the output is the same as
+ * calling {@link StringSubstitutor#replace(String)} on the whole input. A variable start that is never closed cannot
+ * be substituted and is held back until the end of the input. The variable prefix and suffix matchers must report
+ * their {@link StringMatcher#size() size}.
+ * </p>
+ * <p>
+ * Malformed input and unmappable characters are replaced, as they are by {@link java.io.InputStreamReader} and
+ * {@link java.io.OutputStreamWriter}.
+ * </p>
+ * <h2>Thread Safety</h2>
+ * <p>
+ * Instances are immutable and each copy uses its own buffers. Concurrent copies share the {@link StringSubstitutor},
+ * which should then be an {@link org.apache.commons.text.ImmutableStringSubstitutor} with a thread-safe lookup.
+ * </p>
+ *
+ * @since 1.14.0
+ */
+public final class StringSubstitutorChannelCopier {
+
+    /**
+     * Builds a new {@link StringSubstitutorChannelCopier}.
+     */
+    public static final class Builder implements Supplier<StringSubstitutorChannelCopier> {
+
+        /**
+         * The number of chars decoded at a time.
+         */
+        private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+        /**
+         * The charset of the input and output.
+         */
+        private Charset charset = Charset.defaultCharset();
+
+        /**
+         * Whether file inputs are memory-mapped.
+         */
+        private boolean memoryMap;
+
+        /**
+         * The substitutor.
+         */
+        private StringSubstitutor stringSubstitutor;
+
+        /**
+         * Creates a new instance.
+         */
+        public Builder() {
+            // empty
+        }
+
+        /**
+         * Builds a new {@link StringSubstitutorChannelCopier}.
+         *
+         * @return a new {@link StringSubstitutorChannelCopier}.
+         * @throws NullPointerException if no {@link StringSubstitutor} was set.
+         */
+        @Override
+        public StringSubstitutorChannelCopier get() {
+            return new StringSubstitutorChannelCopier(this);
+        }
+
+        /**
+         * Sets the number of chars decoded at a time, defaults to {@value StringSubstitutorChannelCopier#DEFAULT_BUFFER_SIZE}.
+         *
+         * @param bufferSize the buffer size, greater than 0.
+         * @return {@code this} instance.
+         * @throws IllegalArgumentException if {@code bufferSize} is not greater than 0.
+         */
+        public Builder setBufferSize(final int bufferSize) {
+            Validate.isTrue(bufferSize > 0, "bufferSize must be greater than 0: %d", bufferSize);
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * Sets the charset of the input and output, null resets to the default charset.
+         *
+         * @param charset the charset.
+         * @return {@code this} instance.
+         */
+        public Builder setCharset(final Charset charset) {
+            this.charset = charset != null ? charset : Charset.defaultCharset();
+            return this;
+        }
+
+        /**
+         * Sets whether file inputs are memory-mapped instead of read, defaults to false.
+         *
+         * @param memoryMap whether file inputs are memory-mapped.
+         * @return {@code this} instance.
+         */
+        public Builder setMemoryMap(final boolean memoryMap) {
+            this.memoryMap = memoryMap;
+            return this;
+        }
+
+        /**
+         * Sets the substitutor.
+         *
+         * @param stringSubstitutor the substitutor.
+         * @return {@code this} instance.
+         */
+        public Builder setStringSubstitutor(final StringSubstitutor stringSubstitutor) {
+            this.stringSubstitutor = stringSubstitutor;
+            return this;
+        }
+    }
+
+    /**
+     * The state of one copy: the pending text, the scanner position and the coders.
+     */
+    private final class Copy {
+
+        /** Decodes the input. */
+        private final CharsetDecoder decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        /** Encodes the output. */
+        private final CharsetEncoder encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        /** The output bytes not yet written. */
+        private final ByteBuffer out = ByteBuffer.allocateDirect(Math.max(bufferSize, MIN_BYTE_BUFFER_SIZE));
+
+        /** The target channel. */
+        private final WritableByteChannel target;
+
+        /** The decoded chars not yet written. */
+        private char[] chars = new char[Math.max(bufferSize, 2) * 2];
+
+        /** The number of decoded chars not yet written. */
+        private int length;
+
+        /** The next position to scan, outside of any variable. */
+        private int pos;
+
+        /** The last position where the text can be split for substitution. */
+        private int safe;
+
+        /** The first position that needs substitution, -1 if the text before {@link #safe} is literal. */
+        private int substituteFrom = -1;
+
+        /** The start of the prefix of the variable whose suffix is searched, -1 if none. */
+        private int varStart = -1;
+
+        /** Whether the variable whose suffix is searched is escaped. */
+        private boolean varEscaped;
+
+        /** The next position to search for the suffix of the variable at {@link #varStart}. */
+        private int searchPos;
+
+        /** The number of nested variables opened in the variable at {@link #varStart}. */
+        private int nested;
+
+        /** The number of bytes written. */
+        private long written;
+
+        private Copy(final WritableByteChannel target) {
+            this.target = target;
+        }
+
+        /**
+         * Decodes bytes, writing the text that can be substituted so far.
+         */
+        private void decode(final ByteBuffer in, final boolean endOfInput) throws IOException {
+            CoderResult result;
+            do {
+                ensureCapacity();
+                final CharBuffer charBuffer = CharBuffer.wrap(chars, length, chars.length - length);
+                result = decoder.decode(in, charBuffer, endOfInput);
+                length = charBuffer.position();
+                scan(false);
+                write(safe);
+            } while (result.isOverflow());
+        }
+
+        /**
+         * Encodes chars to the output.
+         */
+        private void encode(final CharBuffer charBuffer) throws IOException {
+            while (encoder.encode(charBuffer, out, false).isOverflow()) {
+                flush();
+            }
+            if (charBuffer.hasRemaining()) {
+                // a high surrogate without its low surrogate
+                final byte[] replacement = encoder.replacement();
+                if (out.remaining() < replacement.length) {
+                    flush();
+                }
+                out.put(replacement);
+            }
+        }
+
+        /**
+         * Makes room to decode at least a buffer of chars.
+         */
+        private void ensureCapacity() {
+            final int minimum = Math.max(bufferSize, 2);
+            if (chars.length - length < minimum) {
+                chars = Arrays.copyOf(chars, Math.max(chars.length * 2, length + minimum));
+            }
+        }
+
+        /**
+         * Flushes the decoder and encoder at the end of the input and writes all remaining text.
+         */
+        private long finish() throws IOException {
+            ensureCapacity();
+            final CharBuffer charBuffer = CharBuffer.wrap(chars, length, chars.length - length);
+            decoder.flush(charBuffer);
+            length = charBuffer.position();
+            scan(true);
+            write(length);
+            encoder.encode(CharBuffer.allocate(0), out, true);
+            while (encoder.flush(out).isOverflow()) {
+                flush();
+            }
+            flush();
+            return written;
+        }
+
+        /**
+         * Writes the encoded bytes to the target channel.
+         */
+        private void flush() throws IOException {
+            out.flip();
+            while (out.hasRemaining()) {
+                written += target.write(out);
+            }
+            out.clear();
+        }
+
+        /**
+         * Records the given position as a split point unless it is preceded by an escape char, which could escape a
+         * prefix at that position, or by a high surrogate.
+         */
+        private void markSafe(final int split) {
+            final char previous = chars[split - 1];
+            if (previous != escapeChar && !Character.isHighSurrogate(previous)) {
+                safe = split;
+            }
+        }
+
+        /**
+         * Scans the decoded text the way {@link StringSubstitutor} does, recording where the text can be split. Without
+         * the end of input, stops where a prefix or suffix might be cut by the end of the decoded text.
+         */
+        private void scan(final boolean endOfInput) {
+            while (true) {
+                if (varStart >= 0) {
+                    // find the suffix of a variable
+                    int suffixLength = 0;
+                    while (suffixLength == 0) {
+                        if (searchPos >= length || !endOfInput && length - searchPos < lookahead) {
+                            // an unterminated variable can't be substituted, wait for the end of the input
+                            return;
+                        }
+                        final int prefixLength = substitutionInVariables ? prefixMatcher.isMatch(chars, searchPos, 0, length) : 0;
+                        if (prefixLength != 0) {
+                            nested++;
+                            searchPos += prefixLength;
+                            continue;
+                        }
+                        final int matchLength = suffixMatcher.isMatch(chars, searchPos, 0, length);
+                        if (matchLength == 0) {
+                            searchPos++;
+                        } else if (nested == 0) {
+                            suffixLength = matchLength;
+                        } else {
+                            nested--;
+                            searchPos += matchLength;
+                        }
+                    }
+                    // an escaped variable is kept and scanned again from its second char
+                    pos = varEscaped ? varStart + 1 : searchPos + suffixLength;
+                    varStart = -1;
+                    markSafe(pos);
+                    continue;
+                }
+                if (pos >= length || !endOfInput && length - pos < lookahead) {
+                    return;
+                }
+                final int prefixLength = prefixMatcher.isMatch(chars, pos, 0, length);
+                if (prefixLength == 0) {
+                    pos++;
+                    markSafe(pos);
+                    continue;
+                }
+                final boolean escaped = pos > 0 && chars[pos - 1] == escapeChar;
+                if (substituteFrom < 0) {
+                    substituteFrom = escaped ? pos - 1 : pos;
+                }
+                if (escaped && preserveEscapes) {
+                    pos++;
+                    markSafe(pos);
+                    continue;
+                }
+                varStart = pos;
+                varEscaped = escaped;
+                searchPos = pos + prefixLength;
+                nested = 0;
+            }
+        }
+
+        /**
+         * Substitutes and encodes the text up to the given position, then moves the remaining text to the start of the
+         * buffer.
+         */
+        private void write(final int end) throws IOException {
+            if (end == 0) {
+                return;
+            }
+            if (substituteFrom < 0 || substituteFrom >= end) {
+                encode(CharBuffer.wrap(chars, 0, end));
+            } else {
+                encode(CharBuffer.wrap(chars, 0, substituteFrom));
+                encode(CharBuffer.wrap(stringSubstitutor.replace(chars, substituteFrom, end - substituteFrom)));
+            }
+            length -= end;
+            System.arraycopy(chars, end, chars, 0, length);
+            pos -= end;
+            safe -= end;
+            if (varStart >= 0) {
+                varStart -= end;
+                searchPos -= end;
+            }
+            if (substituteFrom >= end) {
+                substituteFrom -= end;
+            } else {
+                // conservative: the scanned text left may contain a variable
+                substituteFrom = pos > 0 || varStart >= 0 ? 0 : -1;
+            }
+        }
+    }
+
+    /**
+     * The default number of chars decoded at a time: {@value}.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The minimum size of the byte buffers, enough for any encoded char.
+     */
+    private static final int MIN_BYTE_BUFFER_SIZE = 16;
+
+    /**
+     * The number of buffers mapped at a time from a file.
+     */
+    private static final int BUFFERS_PER_MAPPED_REGION = 1024;
+
+    /**
+     * Constructs a new {@link Builder}.
+     *
+     * @return a new {@link Builder}.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** The number of chars decoded at a time. */
+    private final int bufferSize;
+
+    /** The charset of the input and output. */
+    private final Charset charset;
+
+    /** The escape char. */
+    private final char escapeChar;
+
+    /** The number of chars needed to tell whether a prefix or suffix starts at a position. */
+    private final int lookahead;
+
+    /** Whether file inputs are memory-mapped. */
+    private final boolean memoryMap;
+
+    /** The variable prefix. */
+    private final StringMatcher prefixMatcher;
+
+    /** Whether escapes are preserved. */
+    private final boolean preserveEscapes;
+
+    /** The substitutor. */
+    private final StringSubstitutor stringSubstitutor;
+
+    /** Whether substitution in variable names is enabled. */
+    private final boolean substitutionInVariables;
+
+    /** The variable suffix. */
+    private final StringMatcher suffixMatcher;
+
+    private StringSubstitutorChannelCopier(final Builder builder) {
+        this.bufferSize = builder.bufferSize;
+        this.charset = builder.charset;
+        this.memoryMap = builder.memoryMap;
+        this.stringSubstitutor = Objects.requireNonNull(builder.stringSubstitutor, "stringSubstitutor");
+        this.escapeChar = stringSubstitutor.getEscapeChar();
+        this.prefixMatcher = stringSubstitutor.getVariablePrefixMatcher();
+        this.preserveEscapes = stringSubstitutor.isPreserveEscapes();
+        this.substitutionInVariables = stringSubstitutor.isEnableSubstitutionInVariables();
+        this.suffixMatcher = stringSubstitutor.getVariableSuffixMatcher();
+        this.lookahead = Math.max(1, Math.max(prefixMatcher.size(), suffixMatcher.size()));
+    }
+
+    /**
+     * Copies a file to another, performing string substitution. The target file is created or truncated.
+     *
+     * @param source the source file.
+     * @param target the target file.
+     * @return the number of bytes written.
+     * @throws IOException if an I/O error occurs.
+     * @throws IllegalArgumentException if a variable is undefined and the substitutor is set to fail on undefined
+     *         variables.
+     */
+    public long copy(final Path source, final Path target) throws IOException {
+        try (FileChannel sourceChannel = FileChannel.open(source, StandardOpenOption.READ);
+            FileChannel targetChannel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            return copy(sourceChannel, targetChannel);
+        }
+    }
+
+    /**
+     * Copies the remaining content of a channel to another, performing string substitution. Neither channel is closed.
+     * <p>
+     * If memory mapping is enabled and the source is a {@link FileChannel}, the file is mapped from the current
+     * position of the channel to its end.
+     * </p>
+     *
+     * @param source the source channel.
+     * @param target the target channel.
+     * @return the number of bytes written.
+     * @throws IOException if an I/O error occurs.
+     * @throws IllegalArgumentException if a variable is undefined and the substitutor is set to fail on undefined
+     *         variables.
+     */
+    public long copy(final ReadableByteChannel source, final WritableByteChannel target) throws IOException {
+        Objects.requireNonNull(source, "source");
+        final Copy copy = new Copy(Objects.requireNonNull(target, "target"));
+        if (memoryMap && source instanceof FileChannel) {
+            final FileChannel fileChannel = (FileChannel) source;
+            final long regionSize = Math.min(Integer.MAX_VALUE,
+                (long) Math.max(bufferSize, MIN_BYTE_BUFFER_SIZE) * BUFFERS_PER_MAPPED_REGION);
+            final long size = fileChannel.size();
+            long position = fileChannel.position();
+            while (true) {
+                final long mapSize = Math.min(regionSize, size - position);
+                final ByteBuffer in = fileChannel.map(FileChannel.MapMode.READ_ONLY, position, mapSize);
+                final boolean last = position + mapSize == size;
+                copy.decode(in, last);
+                if (last) {
+                    break;
+                }
+                // a char cut by the end of the region is decoded with the next region
+                position += mapSize - in.remaining();
+            }
+            fileChannel.position(size);
+        } else {
+            final ByteBuffer in = ByteBuffer.allocateDirect(Math.max(bufferSize, MIN_BYTE_BUFFER_SIZE));
+            while (source.read(in) != -1) {
+                in.flip();
+                copy.decode(in, false);
+                in.compact();
+            }
+            in.flip();
+            copy.decode(in, true);
+        }
+        return copy.finish();
+    }
+
+    @Override
+    public String toString() {
+        return "StringSubstitutorChannelCopier [bufferSize=" + bufferSize + ", charset=" + charset + ", memoryMap="
+            + memoryMap + ", stringSubstitutor=" + stringSubstitutor + "]";
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.text.io;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.text.translate.CharSequenceTranslator;
+
+/**
+ * A bounded window over a stream of characters being translated by a {@link CharSequenceTranslator}.
+ * <p>
+ * Characters are translated only while at least {@code lookahead} characters follow them in the window, so that a
+ * sequence such as an entity, a Unicode escape, or a surrogate pair is translated whole even when it straddles the
+ * chunks of the stream. The rest of the window is translated at the end of the stream.
+ * </p>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ */
+final class TranslatorWindow {
+
+    /** The default number of characters translated at a time. */
+    static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /** The default number of characters kept after the characters being translated. */
+    static final int DEFAULT_LOOKAHEAD = 64;
+
+    /** The characters not translated yet. */
+    private final StringBuilder chars;
+
+    /** The maximum number of characters in the window. */
+    private final int capacity;
+
+    /** The number of characters kept after the characters being translated. */
+    private final int lookahead;
+
+    /** The translator. */
+    private final CharSequenceTranslator translator;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param translator the translator.
+     * @param bufferSize the number of characters translated at a time.
+     * @param lookahead the number of characters kept after the characters being translated.
+     * @throws NullPointerException if {@code translator} is {@code null}.
+     * @throws IllegalArgumentException if {@code bufferSize} or {@code lookahead} is not positive.
+     */
+    TranslatorWindow(final CharSequenceTranslator translator, final int bufferSize, final int lookahead) {
+        Validate.isTrue(bufferSize > 0, "bufferSize must be positive: %d", bufferSize);
+        Validate.isTrue(lookahead > 0, "lookahead must be positive: %d", lookahead);
+        this.translator = Objects.requireNonNull(translator, "translator");
+        this.capacity = bufferSize + lookahead;
+        this.lookahead = lookahead;
+        this.chars = new StringBuilder(capacity);
+    }
+
+    /**
+     * Appends characters to the window.
+     *
+     * @param cbuf the characters.
+     * @param off the offset of the first character.
+     * @param len the number of characters, at most {@link #available()}.
+     */
+    void append(final char[] cbuf, final int off, final int len) {
+        chars.append(cbuf, off, len);
+    }
+
+    /**
+     * Appends a character to the window.
+     *
+     * @param c the character.
+     */
+    void append(final int c) {
+        chars.append((char) c);
+    }
+
+    /**
+     * Appends characters to the window.
+     *
+     * @param str the characters.
+     * @param off the offset of the first character.
+     * @param len the number of characters, at most {@link #available()}.
+     */
+    void append(final String str, final int off, final int len) {
+        chars.append(str, off, off + len);
+    }
+
+    /**
+     * Gets the number of characters that can be appended.
+     *
+     * @return the number of characters that can be appended.
+     */
+    int available() {
+        return capacity - chars.length();
+    }
+
+    /**
+     * Translates the characters followed by enough lookahead, or all characters at the end of the stream, and removes
+     * them from the window.
+     *
+     * @param output where to write the translation.
+     * @param endOfStream whether the end of the stream was reached.
+     * @throws IOException if {@code output} throws one.
+     */
+    void translate(final Appendable output, final boolean endOfStream) throws IOException {
+        final int end = endOfStream ? chars.length() : chars.length() - lookahead;
+        if (end > 0) {
+            chars.delete(0, translator.translateTo(chars, 0, end, output));
+        }
+    }
+}
@@ -26,6 +26,18 @@
  * example, when a Servlet filters a file to a client.
  * </p>
  *
+ * <p>
+ * {@link org.apache.commons.text.io.StringSubstitutorChannelCopier} copies a file or byte channel to another, decoding
+ * large chunks at a time, for example, to template multi-gigabyte files.
+ * </p>
+ *
+ * <p>
+ * {@link org.apache.commons.text.io.CharSequenceTranslatorWriter} and
+ * {@link org.apache.commons.text.io.CharSequenceTranslatorReader} apply a
+ * {@link org.apache.commons.text.translate.CharSequenceTranslator} to a stream with constant memory, for example, to
+ * escape or unescape large XML or CSV exports.
+ * </p>
+ *
  * @since 1.9
  */
 package org.apache.commons.text.io;
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.commons.text.lookup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Looks up a String key for a String value without blocking the caller.
+ * <p>
+ * Slow lookups, like DNS or URL lookups, can be started together and awaited once, so the time to resolve several keys
+ * is bounded by the slowest lookup instead of the sum of all lookups. To run an existing {@link StringLookup} on an
+ * executor, use {@link StringLookupFactory#asyncStringLookup(StringLookup, java.util.concurrent.Executor)}.
+ * </p>
+ * <p>
+ * An instance is also a blocking {@link StringLookup}: {@link #lookup(String)} waits for {@link #lookupAsync(String)}
+ * to complete.
+ * </p>
+ *
+ * @see org.apache.commons.text.StringSubstitutorTemplate#renderAsync(AsyncStringLookup)
+ * @since 1.14.0
+ */
+@FunctionalInterface
+public interface AsyncStringLookup extends StringLookup {
+
+    /**
+     * Looks up a String key and waits for the value.
+     * <p>
+     * A runtime exception thrown by the asynchronous lookup is rethrown as is.
+     * </p>
+     *
+     * @param key the key to look up, may be null.
+     * @return The matching value, null if no match.
+     */
+    @Override
+    default String lookup(final String key) {
+        try {
+            return lookupAsync(key).join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Starts looking up a String key.
+     *
+     * @param key the key to look up, may be null.
+     * @return a future completed with the matching value, or with null if no match, not null.
+     */
+    CompletableFuture<String> lookupAsync(String key);
+}
@@ -0,0 +1,416 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.commons.text.lookup;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.LongSupplier;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Caches the values of another {@link StringLookup}, for lookups whose values are expensive to compute, like DNS, file,
+ * URL or XML lookups.
+ * <p>
+ * The cache holds at most a maximum number of keys. When it is full, the least recently used (LRU) or the least
+ * frequently used (LFU) key is evicted. Entries can expire after a time to live, and unknown keys, for which the
+ * lookup returns null, can be cached as well, optionally with their own time to live.
+ * </p>
+ * <p>
+ * Instances are thread-safe if the cached lookup is. The cached lookup is called without holding a lock, so a slow
+ * lookup does not block lookups of other keys. Threads missing the same key at the same time share one call to the
+ * cached lookup: the first thread calls it and the others wait for its result.
+ * </p>
+ * <p>
+ * Create instances with {@link StringLookupFactory#cachingStringLookup(StringLookup, int)},
+ * {@link StringLookupFactory#cachingStringLookup(StringLookup, int, Eviction, Duration, boolean)} or
+ * {@link StringLookupFactory#cachingStringLookup(StringLookup, int, Eviction, Duration, Duration)}.
+ * </p>
+ *
+ * @since 1.14.0
+ */
+public final class CachingStringLookup implements StringLookup {
+
+    /**
+     * Selects the key to evict from a full cache.
+     */
+    public enum Eviction {
+
+        /**
+         * Evicts the least frequently used key; among keys used equally often, the least recently added one.
+         */
+        LFU,
+
+        /**
+         * Evicts the least recently used key.
+         */
+        LRU
+    }
+
+    /**
+     * A cached value.
+     */
+    private static final class Entry {
+
+        /** The key. */
+        private final String key;
+
+        /** The value, may be null. */
+        private final String value;
+
+        /** Whether the entry expires. */
+        private final boolean expires;
+
+        /** The {@link System#nanoTime()} at which the entry expires, unused if the entry does not expire. */
+        private final long expiresAt;
+
+        /** The number of uses, for LFU eviction. */
+        private int frequency = 1;
+
+        private Entry(final String key, final String value, final boolean expires, final long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.expires = expires;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /** The initial capacity of the entry map. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The load factor of the entry map. */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /** The cached lookup. */
+    private final StringLookup stringLookup;
+
+    /** The maximum number of cached keys. */
+    private final int maxSize;
+
+    /** The eviction policy. */
+    private final Eviction eviction;
+
+    /** The time to live of entries, null if entries do not expire. */
+    private final Duration timeToLive;
+
+    /** Whether null values are cached. */
+    private final boolean cacheNulls;
+
+    /** The time to live of null values, null if they do not expire. */
+    private final Duration nullTimeToLive;
+
+    /** The time source, in nanoseconds. */
+    private final LongSupplier nanoTime;
+
+    /** The entries by key; in access order for LRU eviction. Guards all mutable state. */
+    private final Map<String, Entry> entries;
+
+    /** For LFU eviction, the entries by use count, each in insertion order; null for LRU eviction. */
+    private final Map<Integer, LinkedHashSet<Entry>> frequencies;
+
+    /** For LFU eviction, the lowest use count of a cached entry. */
+    private int minFrequency;
+
+    /** The results of the calls to the cached lookup in progress, by key. */
+    private final Map<String, CompletableFuture<String>> pending = new HashMap<>();
+
+    /** The number of lookups answered from the cache. */
+    private long hitCount;
+
+    /** The number of lookups passed on to the cached lookup. */
+    private long missCount;
+
+    /** The number of entries evicted because the cache was full. */
+    private long evictionCount;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param stringLookup the lookup to cache, not null.
+     * @param maxSize the maximum number of cached keys, greater than zero.
+     * @param eviction the eviction policy, not null.
+     * @param timeToLive the time to live of entries, positive, or null if entries do not expire.
+     * @param cacheNulls whether to cache the keys for which the lookup returns null.
+     */
+    CachingStringLookup(final StringLookup stringLookup, final int maxSize, final Eviction eviction,
+        final Duration timeToLive, final boolean cacheNulls) {
+        this(stringLookup, maxSize, eviction, timeToLive, cacheNulls, System::nanoTime);
+    }
+
+    /**
+     * Constructs a new instance with the given time source.
+     *
+     * @param stringLookup the lookup to cache, not null.
+     * @param maxSize the maximum number of cached keys, greater than zero.
+     * @param eviction the eviction policy, not null.
+     * @param timeToLive the time to live of entries, positive, or null if entries do not expire.
+     * @param cacheNulls whether to cache the keys for which the lookup returns null.
+     * @param nanoTime the time source, in nanoseconds.
+     */
+    CachingStringLookup(final StringLookup stringLookup, final int maxSize, final Eviction eviction,
+        final Duration timeToLive, final boolean cacheNulls, final LongSupplier nanoTime) {
+        this(stringLookup, maxSize, eviction, timeToLive, cacheNulls, timeToLive, nanoTime);
+    }
+
+    /**
+     * Constructs a new instance with a separate time to live for null values and the given time source.
+     *
+     * @param stringLookup the lookup to cache, not null.
+     * @param maxSize the maximum number of cached keys, greater than zero.
+     * @param eviction the eviction policy, not null.
+     * @param timeToLive the time to live of non-null values, positive, or null if they do not expire.
+     * @param cacheNulls whether to cache the keys for which the lookup returns null.
+     * @param nullTimeToLive the time to live of null values, positive, or null if they do not expire.
+     * @param nanoTime the time source, in nanoseconds.
+     */
+    CachingStringLookup(final StringLookup stringLookup, final int maxSize, final Eviction eviction,
+        final Duration timeToLive, final boolean cacheNulls, final Duration nullTimeToLive,
+        final LongSupplier nanoTime) {
+        this.stringLookup = Objects.requireNonNull(stringLookup, "stringLookup");
+        Validate.isTrue(maxSize > 0, "maxSize must be greater than zero: %d", maxSize);
+        this.maxSize = maxSize;
+        this.eviction = Objects.requireNonNull(eviction, "eviction");
+        Validate.isTrue(timeToLive == null || !timeToLive.isNegative() && !timeToLive.isZero(),
+            "timeToLive must be positive: %s", timeToLive);
+        Validate.isTrue(nullTimeToLive == null || !nullTimeToLive.isNegative() && !nullTimeToLive.isZero(),
+            "nullTimeToLive must be positive: %s", nullTimeToLive);
+        this.timeToLive = timeToLive;
+        this.cacheNulls = cacheNulls;
+        this.nullTimeToLive = nullTimeToLive;
+        this.nanoTime = nanoTime;
+        if (eviction == Eviction.LRU) {
+            entries = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+            frequencies = null;
+        } else {
+            entries = new HashMap<>();
+            frequencies = new HashMap<>();
+        }
+    }
+
+    /**
+     * Adds an entry to a cache that has room for it.
+     *
+     * @param entry the entry.
+     */
+    private void add(final Entry entry) {
+        entries.put(entry.key, entry);
+        if (frequencies != null) {
+            frequencies.computeIfAbsent(entry.frequency, k -> new LinkedHashSet<>()).add(entry);
+            minFrequency = entry.frequency;
+        }
+    }
+
+    /**
+     * Removes all entries. The statistics are kept.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            if (frequencies != null) {
+                frequencies.clear();
+            }
+        }
+    }
+
+    /**
+     * Evicts one entry according to the eviction policy.
+     */
+    private void evict() {
+        final Entry entry;
+        if (frequencies == null) {
+            // the eldest entry in access order
+            entry = entries.values().iterator().next();
+        } else {
+            LinkedHashSet<Entry> bucket = frequencies.get(minFrequency);
+            if (bucket == null) {
+                // entries removed since the minimum was last known
+                minFrequency = frequencies.keySet().stream().min(Integer::compare).get();
+                bucket = frequencies.get(minFrequency);
+            }
+            entry = bucket.iterator().next();
+        }
+        remove(entry);
+        evictionCount++;
+    }
+
+    /**
+     * Gets the number of entries evicted because the cache was full. Expired entries are not counted.
+     *
+     * @return the number of evicted entries.
+     */
+    public long getEvictionCount() {
+        synchronized (entries) {
+            return evictionCount;
+        }
+    }
+
+    /**
+     * Gets the number of lookups answered from the cache, including lookups that waited for another thread calling the
+     * cached lookup for the same key.
+     *
+     * @return the number of cache hits.
+     */
+    public long getHitCount() {
+        synchronized (entries) {
+            return hitCount;
+        }
+    }
+
+    /**
+     * Gets the number of lookups passed on to the cached lookup, including lookups of expired keys.
+     *
+     * @return the number of cache misses.
+     */
+    public long getMissCount() {
+        synchronized (entries) {
+            return missCount;
+        }
+    }
+
+    /**
+     * Looks up a key, answering from the cache if possible.
+     * <p>
+     * A null key is passed on to the cached lookup and is not cached.
+     * </p>
+     *
+     * @param key the key to look up, may be null.
+     * @return The matching value, null if no match.
+     */
+    @Override
+    public String lookup(final String key) {
+        if (key == null) {
+            return stringLookup.lookup(null);
+        }
+        final CompletableFuture<String> result;
+        final CompletableFuture<String> inProgress;
+        synchronized (entries) {
+            final Entry entry = entries.get(key);
+            if (entry != null) {
+                if (!entry.expires || nanoTime.getAsLong() - entry.expiresAt < 0) {
+                    hitCount++;
+                    touch(entry);
+                    return entry.value;
+                }
+                remove(entry);
+            }
+            inProgress = pending.get(key);
+            if (inProgress != null) {
+                hitCount++;
+                result = null;
+            } else {
+                missCount++;
+                result = new CompletableFuture<>();
+                pending.put(key, result);
+            }
+        }
+        if (inProgress != null) {
+            // another thread is calling the cached lookup for this key
+            try {
+                return inProgress.join();
+            } catch (final CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+        final String value;
+        try {
+            value = stringLookup.lookup(key);
+        } catch (final RuntimeException | Error e) {
+            synchronized (entries) {
+                pending.remove(key);
+            }
+            result.completeExceptionally(e);
+            throw e;
+        }
+        final Duration valueTimeToLive = value != null ? timeToLive : nullTimeToLive;
+        final long expiresAt = valueTimeToLive == null ? 0 : nanoTime.getAsLong() + valueTimeToLive.toNanos();
+        synchronized (entries) {
+            pending.remove(key);
+            if (value != null || cacheNulls) {
+                if (entries.size() >= maxSize) {
+                    evict();
+                }
+                add(new Entry(key, value, valueTimeToLive != null, expiresAt));
+            }
+        }
+        result.complete(value);
+        return value;
+    }
+
+    /**
+     * Removes an entry.
+     *
+     * @param entry the entry.
+     */
+    private void remove(final Entry entry) {
+        entries.remove(entry.key);
+        if (frequencies != null) {
+            final LinkedHashSet<Entry> bucket = frequencies.get(entry.frequency);
+            bucket.remove(entry);
+            if (bucket.isEmpty()) {
+                frequencies.remove(entry.frequency);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of cached keys, including expired keys not yet removed.
+     *
+     * @return the number of cached keys.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return super.toString() + " [stringLookup=" + stringLookup + ", maxSize=" + maxSize + ", eviction=" + eviction
+            + ", timeToLive=" + timeToLive + ", cacheNulls=" + cacheNulls
+            + ", nullTimeToLive=" + nullTimeToLive + "]";
+    }
+
+    /**
+     * Records a use of an entry for LFU eviction; LRU order is maintained by the entry map.
+     *
+     * @param entry the entry.
+     */
+    private void touch(final Entry entry) {
+        if (frequencies == null) {
+            return;
+        }
+        final LinkedHashSet<Entry> bucket = frequencies.get(entry.frequency);
+        bucket.remove(entry);
+        if (bucket.isEmpty()) {
+            frequencies.remove(entry.frequency);
+            if (minFrequency == entry.frequency) {
+                minFrequency++;
+            }
+        }
+        entry.frequency++;
+        frequencies.computeIfAbsent(entry.frequency, k -> new LinkedHashSet<>()).add(entry);
+    }
+}
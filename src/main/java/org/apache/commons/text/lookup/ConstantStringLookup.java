@@ -36,7 +36,7 @@ import org.apache.commons.text.StringSubstitutor;
  * </p>
  * <p>
  * Once retrieved values are cached for fast access. This class is thread-safe. It can be used as a standard (i.e.
- * global) lookup object and serve multiple clients concurrently.
+ * global) lookup object and serve multiple clients concurrently; lookups of cached values do not lock.
  * </p>
  * <p>
  * Using a {@link StringLookup} from the {@link StringLookupFactory}:
@@ -100,17 +100,21 @@ class ConstantStringLookup extends AbstractStringLookup {
      * final</b> member field of a class. If the value has already been obtained, it can be retrieved from an internal
      * cache. Otherwise this method will invoke the {@code resolveField()} method and pass in the name of the class and
      * the field.
+     * <p>
+     * The field is resolved without holding a lock, since loading its class may run a static initializer that looks
+     * up other constants. Threads resolving the same new constant at the same time may both read it; they all return
+     * the first cached value.
+     * </p>
      *
      * @param key the name of the variable to be resolved
      * @return The value of this variable or <strong>null</strong> if it cannot be resolved
      */
     @Override
-    public synchronized String lookup(final String key) {
+    public String lookup(final String key) {
         if (key == null) {
             return null;
         }
-        String result;
-        result = CONSTANT_CACHE.get(key);
+        final String result = CONSTANT_CACHE.get(key);
         if (result != null) {
             return result;
         }
@@ -118,18 +122,19 @@ class ConstantStringLookup extends AbstractStringLookup {
         if (fieldPos < 0) {
             return null;
         }
+        final Object value;
         try {
-            final Object value = resolveField(key.substring(0, fieldPos), key.substring(fieldPos + 1));
-            if (value != null) {
-                final String string = Objects.toString(value, null);
-                CONSTANT_CACHE.put(key, string);
-                result = string;
-            }
+            value = resolveField(key.substring(0, fieldPos), key.substring(fieldPos + 1));
         } catch (final Exception ex) {
             // TODO it would be nice to log
             return null;
         }
-        return result;
+        if (value == null) {
+            return null;
+        }
+        final String string = Objects.toString(value, null);
+        final String previous = CONSTANT_CACHE.putIfAbsent(key, string);
+        return previous != null ? previous : string;
     }
 
     /**
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.commons.text.lookup;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs a {@link StringLookup} on an {@link Executor}.
+ *
+ * @since 1.14.0
+ */
+final class ExecutorStringLookup implements AsyncStringLookup {
+
+    /** The executor running the lookups. */
+    private final Executor executor;
+
+    /** The lookup to run. */
+    private final StringLookup stringLookup;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param stringLookup the lookup to run.
+     * @param executor the executor running the lookups.
+     */
+    ExecutorStringLookup(final StringLookup stringLookup, final Executor executor) {
+        this.stringLookup = Objects.requireNonNull(stringLookup, "stringLookup");
+        this.executor = Objects.requireNonNull(executor, "executor");
+    }
+
+    /**
+     * Looks up a key in the calling thread, there is no point in waiting for another thread.
+     *
+     * @param key the key to look up, may be null.
+     * @return The matching value, null if no match.
+     */
+    @Override
+    public String lookup(final String key) {
+        return stringLookup.lookup(key);
+    }
+
+    @Override
+    public CompletableFuture<String> lookupAsync(final String key) {
+        return CompletableFuture.supplyAsync(() -> stringLookup.lookup(key), executor);
+    }
+
+    @Override
+    public String toString() {
+        return super.toString() + " [stringLookup=" + stringLookup + ", executor=" + executor + "]";
+    }
+}
@@ -17,8 +17,17 @@
 
 package org.apache.commons.text.lookup;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.text.StringSubstitutor;
@@ -45,6 +54,11 @@ import org.apache.commons.text.StringSubstitutor;
  * <p>
  * The above example converts {@code "UTF-8:SomePath"} to the UTF-8 contents of the file at {@code SomePath}.
  * </p>
+ * <p>
+ * An instance may cache file contents by path and charset, up to a total number of bytes. A cached file is read again
+ * when its last modified time or size changes. Large files are read through a bounded buffer and decoded a chunk at a
+ * time, so their bytes are never all held in memory; the decoded text is copied once more into the resulting string.
+ * </p>
  *
  * @since 1.5
  */
@@ -55,13 +69,44 @@ final class FileStringLookup extends AbstractPathFencedLookup {
      */
     static final AbstractStringLookup INSTANCE = new FileStringLookup((Path[]) null);
 
+    /**
+     * The number of bytes read at a time from a large file.
+     */
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    /**
+     * The number of characters decoded at a time from a large file.
+     */
+    private static final int DECODE_BUFFER_SIZE = 8192;
+
+    /**
+     * Files of this size or larger are read through a bounded buffer instead of into a byte array.
+     */
+    static final long STREAM_THRESHOLD = 1024 * 1024;
+
+    /**
+     * Caches file contents by path and charset name, null if caching is disabled.
+     */
+    private final PathCache<String> cache;
+
     /**
      * Constructs a new instance.
      *
+     * @param maxCachedBytes the maximum total size of the cached files, 0 disables caching.
      * @param fences The fences guarding Path resolution.
      */
-    FileStringLookup(final Path... fences) {
+    FileStringLookup(final long maxCachedBytes, final Path... fences) {
         super(fences);
+        this.cache = maxCachedBytes > 0 ? new PathCache<>(Integer.MAX_VALUE, maxCachedBytes) : null;
+    }
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param fences The fences guarding Path resolution.
+     */
+    FileStringLookup(final Path... fences) {
+        this(0, fences);
     }
 
     /**
@@ -86,10 +131,77 @@ final class FileStringLookup extends AbstractPathFencedLookup {
         final String charsetName = keys[0];
         final String fileName = StringUtils.substringAfter(key, SPLIT_CH);
         try {
-            return new String(Files.readAllBytes(getPath(fileName)), charsetName);
+            final Charset charset = Charset.forName(charsetName);
+            final Path path = getPath(fileName);
+            return cache != null ? cache.get(path, charset.name(), p -> read(p, charset)) : read(path, charset);
         } catch (final Exception e) {
             throw IllegalArgumentExceptions.format(e, "Error looking up file [%s] with charset [%s].", fileName, charsetName);
         }
     }
 
+    /**
+     * Reads the contents of a file, decoding malformed input to the charset's replacement string.
+     *
+     * @param path the file path.
+     * @param charset the charset of the file.
+     * @return the contents of the file.
+     * @throws IOException if an I/O error occurs.
+     */
+    static String read(final Path path, final Charset charset) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size < STREAM_THRESHOLD) {
+                return new String(Files.readAllBytes(path), charset);
+            }
+            final CharsetDecoder decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            final StringBuilder builder = new StringBuilder((int) Math.min(Integer.MAX_VALUE - DECODE_BUFFER_SIZE,
+                (long) (size * (double) decoder.averageCharsPerByte())));
+            final ByteBuffer bytes = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+            final CharBuffer chars = CharBuffer.allocate(DECODE_BUFFER_SIZE);
+            while (channel.read(bytes) != -1) {
+                bytes.flip();
+                decode(decoder, bytes, chars, builder, false);
+                // a char cut by the end of the buffer is decoded with the next read
+                bytes.compact();
+            }
+            bytes.flip();
+            decode(decoder, bytes, chars, builder, true);
+            CoderResult result;
+            do {
+                result = decoder.flush(chars);
+                drain(chars, builder);
+            } while (result.isOverflow());
+            return builder.toString();
+        }
+    }
+
+    /**
+     * Decodes the bytes of a buffer into a builder.
+     *
+     * @param decoder the decoder.
+     * @param bytes the bytes to decode, those of an incomplete char are left unless this is the end of the input.
+     * @param chars the buffer to decode into, empty.
+     * @param builder the builder.
+     * @param endOfInput whether these are the last bytes of the input.
+     */
+    private static void decode(final CharsetDecoder decoder, final ByteBuffer bytes, final CharBuffer chars,
+        final StringBuilder builder, final boolean endOfInput) {
+        CoderResult result;
+        do {
+            result = decoder.decode(bytes, chars, endOfInput);
+            drain(chars, builder);
+        } while (result.isOverflow());
+    }
+
+    /**
+     * Appends the decoded characters of a buffer to a builder and clears the buffer.
+     *
+     * @param chars the buffer.
+     * @param builder the builder.
+     */
+    private static void drain(final CharBuffer chars, final StringBuilder builder) {
+        builder.append(chars.array(), chars.arrayOffset(), chars.position());
+        chars.clear();
+    }
 }
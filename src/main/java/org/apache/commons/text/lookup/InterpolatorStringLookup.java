@@ -16,6 +16,8 @@
  */
 package org.apache.commons.text.lookup;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -29,6 +31,117 @@ import java.util.stream.Collectors;
  */
 final class InterpolatorStringLookup extends AbstractStringLookup {
 
+    /**
+     * Finds the registered prefix matching the start of a key, ignoring ASCII case, without creating a String.
+     * <p>
+     * An open addressing hash table of lower case ASCII prefixes. A prefix found in the table is only a candidate: the
+     * lookup map, which callers may change, stays the source of truth.
+     * </p>
+     */
+    private static final class PrefixIndex {
+
+        /**
+         * Tests whether a prefix is lower case ASCII.
+         *
+         * @param prefix the prefix.
+         * @return whether the prefix can be indexed.
+         */
+        private static boolean isIndexable(final String prefix) {
+            for (int i = 0; i < prefix.length(); i++) {
+                final char c = prefix.charAt(i);
+                if (c >= ASCII_LIMIT || c >= 'A' && c <= 'Z') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** The prefixes, at the slot of their hash or after it; the length is a power of two. */
+        private final String[] slots;
+
+        /** The number of prefixes. */
+        private final int size;
+
+        /**
+         * Constructs a new instance.
+         *
+         * @param prefixes the lower case prefixes, prefixes that are not ASCII are skipped.
+         */
+        private PrefixIndex(final Collection<String> prefixes) {
+            // at most half full
+            slots = new String[Integer.highestOneBit(Math.max(1, prefixes.size()) * 2) * 2];
+            int count = 0;
+            for (final String prefix : prefixes) {
+                if (isIndexable(prefix)) {
+                    int i = prefix.hashCode() & slots.length - 1;
+                    while (slots[i] != null) {
+                        i = i + 1 & slots.length - 1;
+                    }
+                    slots[i] = prefix;
+                    count++;
+                }
+            }
+            size = count;
+        }
+
+        /**
+         * Finds the prefix equal to the start of a key, ignoring ASCII case.
+         *
+         * @param key the key.
+         * @param end the end (exclusive) of the prefix in the key.
+         * @return the lower case prefix, or null if it is not indexed.
+         */
+        private String get(final String key, final int end) {
+            // String.hashCode() of the lower case prefix
+            int hash = 0;
+            for (int i = 0; i < end; i++) {
+                final char c = key.charAt(i);
+                if (c >= ASCII_LIMIT) {
+                    return null;
+                }
+                hash = HASH_MULTIPLIER * hash + (c >= 'A' && c <= 'Z' ? c + CASE_OFFSET : c);
+            }
+            final int mask = slots.length - 1;
+            for (int i = hash & mask; slots[i] != null; i = i + 1 & mask) {
+                final String prefix = slots[i];
+                if (prefix.length() == end && prefix.regionMatches(true, 0, key, 0, end)) {
+                    return prefix;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Creates an index with one more prefix.
+         *
+         * @param prefix the lower case prefix.
+         * @return a new index, or this index if the prefix cannot be indexed or is already indexed.
+         */
+        private PrefixIndex with(final String prefix) {
+            // a key that is not ASCII, like "\u212A" (Kelvin sign), may lower case to an indexed prefix
+            if (!isIndexable(prefix) || get(prefix, prefix.length()) != null) {
+                return this;
+            }
+            final Collection<String> prefixes = new ArrayList<>(size + 1);
+            for (final String slot : slots) {
+                if (slot != null) {
+                    prefixes.add(slot);
+                }
+            }
+            prefixes.add(prefix);
+            return new PrefixIndex(prefixes);
+        }
+    }
+
+    /** Characters below this value are ASCII. */
+    private static final char ASCII_LIMIT = 128;
+
+    /** The multiplier of {@link String#hashCode()}. */
+    private static final int HASH_MULTIPLIER = 31;
+
+    /** The difference between an ASCII lower case letter and its upper case. */
+    private static final int CASE_OFFSET = 'a' - 'A';
+
     /**
      * Defines the singleton for this class.
      *
@@ -42,9 +155,15 @@ final class InterpolatorStringLookup extends AbstractStringLookup {
     /** The default string lookup. */
     private final StringLookup defaultStringLookup;
 
+    /** Receives lookup events, may be null. */
+    private final StringLookupListener listener;
+
     /** The map of String lookups keyed by prefix. */
     private final Map<String, StringLookup> stringLookupMap;
 
+    /** Finds the prefixes of keys, extended when a prefix added to the lookup map after construction is used. */
+    private volatile PrefixIndex prefixIndex;
+
     /**
      * Constructs an instance using only lookups that work without initial properties and are stateless.
      * <p>
@@ -64,11 +183,26 @@ final class InterpolatorStringLookup extends AbstractStringLookup {
      */
     InterpolatorStringLookup(final Map<String, StringLookup> stringLookupMap, final StringLookup defaultStringLookup,
             final boolean addDefaultLookups) {
+        this(stringLookupMap, defaultStringLookup, addDefaultLookups, null);
+    }
+
+    /**
+     * Constructs a fully customized instance notifying the given listener of each lookup.
+     *
+     * @param stringLookupMap the map of string lookups.
+     * @param defaultStringLookup the default string lookup.
+     * @param addDefaultLookups whether the default lookups should be used.
+     * @param listener the listener, may be null.
+     */
+    InterpolatorStringLookup(final Map<String, StringLookup> stringLookupMap, final StringLookup defaultStringLookup,
+            final boolean addDefaultLookups, final StringLookupListener listener) {
         this.defaultStringLookup = defaultStringLookup;
+        this.listener = listener;
         this.stringLookupMap = stringLookupMap.entrySet().stream().collect(Collectors.toMap(e -> StringLookupFactory.toKey(e.getKey()), Entry::getValue));
         if (addDefaultLookups) {
             StringLookupFactory.INSTANCE.addDefaultStringLookups(this.stringLookupMap);
         }
+        this.prefixIndex = new PrefixIndex(this.stringLookupMap.keySet());
     }
 
     /**
@@ -93,6 +227,15 @@ final class InterpolatorStringLookup extends AbstractStringLookup {
         this(Collections.emptyMap(), defaultStringLookup, true);
     }
 
+    /**
+     * Gets the number of indexed prefixes, for tests.
+     *
+     * @return the number of indexed prefixes.
+     */
+    int getPrefixIndexSize() {
+        return prefixIndex.size;
+    }
+
     /**
      * Gets the lookup map.
      *
@@ -119,28 +262,56 @@ final class InterpolatorStringLookup extends AbstractStringLookup {
 
         final int prefixPos = key.indexOf(PREFIX_SEPARATOR);
         if (prefixPos >= 0) {
-            final String prefix = StringLookupFactory.toKey(key.substring(0, prefixPos));
+            String prefix = prefixIndex.get(key, prefixPos);
+            final StringLookup lookup;
+            if (prefix != null) {
+                lookup = stringLookupMap.get(prefix);
+            } else {
+                prefix = StringLookupFactory.toKey(key.substring(0, prefixPos));
+                lookup = stringLookupMap.get(prefix);
+                if (lookup != null) {
+                    // registered after construction
+                    prefixIndex = prefixIndex.with(prefix);
+                }
+            }
             final String name = key.substring(prefixPos + 1);
-            final StringLookup lookup = stringLookupMap.get(prefix);
             String value = null;
             if (lookup != null) {
-                value = lookup.lookup(name);
+                value = lookup(prefix, lookup, name);
             }
 
             if (value != null) {
                 return value;
             }
-            key = key.substring(prefixPos + 1);
+            key = name;
         }
         if (defaultStringLookup != null) {
-            return defaultStringLookup.lookup(key);
+            return lookup(null, defaultStringLookup, key);
         }
         return null;
     }
 
+    /**
+     * Looks up a key with the given lookup, notifying the listener if there is one.
+     *
+     * @param prefix the lookup prefix, null for the default lookup.
+     * @param lookup the lookup.
+     * @param key the key without prefix.
+     * @return The value or null.
+     */
+    private String lookup(final String prefix, final StringLookup lookup, final String key) {
+        if (listener == null) {
+            return lookup.lookup(key);
+        }
+        final long start = System.nanoTime();
+        final String value = lookup.lookup(key);
+        listener.onLookup(prefix, key, value != null, System.nanoTime() - start);
+        return value;
+    }
+
     @Override
     public String toString() {
         return super.toString() + " [stringLookupMap=" + stringLookupMap + ", defaultStringLookup="
-            + defaultStringLookup + "]";
+            + defaultStringLookup + ", listener=" + listener + "]";
     }
 }
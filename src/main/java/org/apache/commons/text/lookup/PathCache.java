@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.commons.text.lookup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches values parsed from files, like {@link java.util.Properties}, by absolute path.
+ * <p>
+ * A file may be cached in several variants, for example, decoded with different charsets. The cache may be bounded by
+ * the number of entries and by the total size of the cached files.
+ * </p>
+ * <p>
+ * A cached value is reused as long as the last modified time and the size of its file are unchanged, so a file that
+ * changes is parsed again on its next use. A change that keeps both the size and the last modified time, within the
+ * resolution of the file system clock, is not detected.
+ * </p>
+ * <p>
+ * This class is thread-safe. Two threads loading the same changed file at the same time may both parse it. When the
+ * cache is full, an arbitrary entry is evicted.
+ * </p>
+ *
+ * @param <V> the type of the cached values.
+ */
+final class PathCache<V> {
+
+    /**
+     * Loads the value for a file.
+     *
+     * @param <V> the type of the value.
+     */
+    @FunctionalInterface
+    interface Loader<V> {
+
+        /**
+         * Loads the value for a file.
+         *
+         * @param path the absolute path of the file.
+         * @return the value, not null.
+         * @throws IOException if an I/O error occurs.
+         */
+        V load(Path path) throws IOException;
+    }
+
+    /**
+     * A cached value with the file attributes it was loaded for.
+     *
+     * @param <V> the type of the value.
+     */
+    private static final class Entry<V> {
+
+        /** The last modified time of the file. */
+        private final FileTime lastModifiedTime;
+
+        /** The size of the file. */
+        private final long size;
+
+        /** The value. */
+        private final V value;
+
+        private Entry(final BasicFileAttributes attributes, final V value) {
+            this.lastModifiedTime = attributes.lastModifiedTime();
+            this.size = attributes.size();
+            this.value = value;
+        }
+
+        private boolean isCurrent(final BasicFileAttributes attributes) {
+            return size == attributes.size() && lastModifiedTime.equals(attributes.lastModifiedTime());
+        }
+    }
+
+    /**
+     * Identifies a variant of a file.
+     */
+    private static final class Key {
+
+        /** The absolute path of the file. */
+        private final Path path;
+
+        /** The variant name. */
+        private final String variant;
+
+        private Key(final Path path, final String variant) {
+            this.path = path;
+            this.variant = variant;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return path.equals(other.path) && variant.equals(other.variant);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, variant);
+        }
+    }
+
+    /** The entries by absolute path and variant. */
+    private final Map<Key, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    /** The maximum total size of the cached files. */
+    private final long maxBytes;
+
+    /** The maximum number of entries. */
+    private final int maxSize;
+
+    /** The total size of the cached files. */
+    private final AtomicLong totalBytes = new AtomicLong();
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param maxSize the maximum number of cached files.
+     */
+    PathCache(final int maxSize) {
+        this(maxSize, Long.MAX_VALUE);
+    }
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param maxSize the maximum number of cached files.
+     * @param maxBytes the maximum total size of the cached files, files larger than this are not cached.
+     */
+    PathCache(final int maxSize, final long maxBytes) {
+        this.maxSize = maxSize;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    void clear() {
+        entries.keySet().forEach(this::remove);
+    }
+
+    /**
+     * Gets the value for a file, loading it if it is not cached or if the file changed since it was cached.
+     *
+     * @param path the path of the file.
+     * @param loader loads the value.
+     * @return the value.
+     * @throws IOException if an I/O error occurs.
+     */
+    V get(final Path path, final Loader<V> loader) throws IOException {
+        return get(path, "", loader);
+    }
+
+    /**
+     * Gets a variant of the value for a file, loading it if it is not cached or if the file changed since it was cached.
+     *
+     * @param path the path of the file.
+     * @param variant the variant name, for example, a charset name.
+     * @param loader loads the value.
+     * @return the value.
+     * @throws IOException if an I/O error occurs.
+     */
+    V get(final Path path, final String variant, final Loader<V> loader) throws IOException {
+        final Key key = new Key(path.toAbsolutePath().normalize(), variant);
+        final BasicFileAttributes attributes = Files.readAttributes(key.path, BasicFileAttributes.class);
+        final Entry<V> entry = entries.get(key);
+        if (entry != null && entry.isCurrent(attributes)) {
+            return entry.value;
+        }
+        final V value = loader.load(key.path);
+        if (entry != null) {
+            remove(key);
+        }
+        if (attributes.size() <= maxBytes) {
+            final Iterator<Key> iterator = entries.keySet().iterator();
+            while ((entries.size() >= maxSize || totalBytes.get() + attributes.size() > maxBytes) && iterator.hasNext()) {
+                remove(iterator.next());
+            }
+            totalBytes.addAndGet(attributes.size());
+            final Entry<V> previous = entries.put(key, new Entry<>(attributes, value));
+            if (previous != null) {
+                totalBytes.addAndGet(-previous.size);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Gets the total size of the cached files.
+     *
+     * @return the total size of the cached files.
+     */
+    long getTotalBytes() {
+        return totalBytes.get();
+    }
+
+    private void remove(final Key key) {
+        final Entry<V> removed = entries.remove(key);
+        if (removed != null) {
+            totalBytes.addAndGet(-removed.size);
+        }
+    }
+
+    /**
+     * Gets the number of cached files.
+     *
+     * @return the number of cached files.
+     */
+    int size() {
+        return entries.size();
+    }
+}
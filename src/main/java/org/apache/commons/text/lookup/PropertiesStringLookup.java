@@ -17,6 +17,7 @@
 
 package org.apache.commons.text.lookup;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -30,6 +31,9 @@ import org.apache.commons.lang3.StringUtils;
  * Looks up the value for a given key in the format "Document::Key".
  * </p>
  * <p>
+ * Each file is parsed once and cached until its last modified time or size changes.
+ * </p>
+ * <p>
  * Note the use of "::" instead of ":" to allow for "C:" drive letters in paths.
  * </p>
  * <p>
@@ -49,6 +53,24 @@ final class PropertiesStringLookup extends AbstractPathFencedLookup {
     /** Separates file and key. */
     static final String SEPARATOR = "::";
 
+    /** The maximum number of cached properties files. */
+    private static final int MAX_CACHED_FILES = 100;
+
+    /**
+     * Parses a properties file.
+     *
+     * @param path the file.
+     * @return the properties.
+     * @throws IOException if an I/O error occurs.
+     */
+    private static Properties load(final Path path) throws IOException {
+        final Properties properties = new Properties();
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            properties.load(inputStream);
+        }
+        return properties;
+    }
+
     /**
      * Creates a lookup key for a given file and key.
      */
@@ -56,6 +78,11 @@ final class PropertiesStringLookup extends AbstractPathFencedLookup {
         return AbstractStringLookup.toLookupKey(file, SEPARATOR, key);
     }
 
+    /**
+     * The parsed properties files.
+     */
+    private final PathCache<Properties> cache = new PathCache<>(MAX_CACHED_FILES);
+
     /**
      * Constructs a new instance.
      *
@@ -91,11 +118,7 @@ final class PropertiesStringLookup extends AbstractPathFencedLookup {
         final String documentPath = keys[0];
         final String propertyKey = StringUtils.substringAfter(key, SEPARATOR);
         try {
-            final Properties properties = new Properties();
-            try (InputStream inputStream = Files.newInputStream(getPath(documentPath))) {
-                properties.load(inputStream);
-            }
-            return properties.getProperty(propertyKey);
+            return cache.get(getPath(documentPath), PropertiesStringLookup::load).getProperty(propertyKey);
         } catch (final Exception e) {
             throw IllegalArgumentExceptions.format(e, "Error looking up properties [%s] and key [%s].", documentPath,
                 propertyKey);
@@ -17,10 +17,18 @@
 
 package org.apache.commons.text.lookup;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
 
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
 
 import org.apache.commons.text.StringSubstitutor;
 
@@ -39,16 +47,87 @@ import org.apache.commons.text.StringSubstitutor;
  * <pre>
  * StringSubstitutor.createInterpolator().replace("${script:javascript:3 + 4}"));
  * </pre>
+ * <p>
+ * Script engines are created once and reused: each engine name has a pool of idle engines, and a thread evaluating a
+ * script borrows an engine for the duration of the evaluation. Each evaluation uses new engine bindings, so a script
+ * does not see the variables of previous scripts. Engines implementing {@link Compilable} keep the most recently used
+ * scripts compiled.
+ * </p>
  *
  * @since 1.5
  */
 final class ScriptStringLookup extends AbstractStringLookup {
 
+    /**
+     * A pooled script engine with its compiled scripts.
+     */
+    private static final class PooledEngine {
+
+        /** The engine. */
+        private final ScriptEngine scriptEngine;
+
+        /** The compiled scripts by source in access order, null if the engine cannot compile. */
+        private final Map<String, CompiledScript> compiledScripts;
+
+        private PooledEngine(final ScriptEngine scriptEngine) {
+            this.scriptEngine = scriptEngine;
+            this.compiledScripts = scriptEngine instanceof Compilable ? new LinkedHashMap<String, CompiledScript>(
+                MAX_COMPILED_SCRIPTS, LOAD_FACTOR, true) {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<String, CompiledScript> eldest) {
+                    return size() > MAX_COMPILED_SCRIPTS;
+                }
+            } : null;
+        }
+
+        /**
+         * Evaluates a script with new bindings.
+         *
+         * @param script the script.
+         * @return the result.
+         * @throws ScriptException if the script cannot be compiled or fails.
+         */
+        private Object eval(final String script) throws ScriptException {
+            if (compiledScripts == null) {
+                return scriptEngine.eval(script, scriptEngine.createBindings());
+            }
+            CompiledScript compiledScript = compiledScripts.get(script);
+            if (compiledScript == null) {
+                compiledScript = ((Compilable) scriptEngine).compile(script);
+                compiledScripts.put(script, compiledScript);
+            }
+            return compiledScript.eval(scriptEngine.createBindings());
+        }
+    }
+
+    /**
+     * The maximum number of compiled scripts kept per engine.
+     */
+    private static final int MAX_COMPILED_SCRIPTS = 100;
+
+    /**
+     * The load factor of the compiled scripts map.
+     */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * The maximum number of idle engines kept per engine name.
+     */
+    private static final int MAX_POOLED_ENGINES = Runtime.getRuntime().availableProcessors();
+
     /**
      * Defines the singleton for this class.
      */
     static final ScriptStringLookup INSTANCE = new ScriptStringLookup();
 
+    /**
+     * The idle engines by engine name.
+     */
+    private final Map<String, BlockingQueue<PooledEngine>> pools = new ConcurrentHashMap<>();
+
     /**
      * No need to build instances for now.
      */
@@ -79,11 +158,22 @@ final class ScriptStringLookup extends AbstractStringLookup {
         final String engineName = keys[0];
         final String script = keys[1];
         try {
-            final ScriptEngine scriptEngine = new ScriptEngineManager().getEngineByName(engineName);
-            if (scriptEngine == null) {
-                throw new IllegalArgumentException("No script engine named " + engineName);
+            final BlockingQueue<PooledEngine> pool = pools.computeIfAbsent(engineName,
+                k -> new LinkedBlockingQueue<>(MAX_POOLED_ENGINES));
+            PooledEngine engine = pool.poll();
+            if (engine == null) {
+                final ScriptEngine scriptEngine = new ScriptEngineManager().getEngineByName(engineName);
+                if (scriptEngine == null) {
+                    pools.remove(engineName, pool);
+                    throw new IllegalArgumentException("No script engine named " + engineName);
+                }
+                engine = new PooledEngine(scriptEngine);
+            }
+            try {
+                return Objects.toString(engine.eval(script), null);
+            } finally {
+                pool.offer(engine);
             }
-            return Objects.toString(scriptEngine.eval(script), null);
         } catch (final Exception e) {
             throw IllegalArgumentExceptions.format(e, "Error in script engine [%s] evaluating script [%s].", engineName,
                 script);
@@ -20,12 +20,14 @@ package org.apache.commons.text.lookup;
 import java.net.InetAddress;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -47,6 +49,7 @@ import org.apache.commons.text.StringSubstitutor;
  * <li>{@link #interpolatorStringLookup(Map)}.</li>
  * <li>{@link #interpolatorStringLookup(StringLookup)}.</li>
  * <li>{@link #interpolatorStringLookup(Map, StringLookup, boolean)}.</li>
+ * <li>{@link #interpolatorStringLookup(Map, StringLookup, boolean, StringLookupListener)}.</li>
  * </ul>
  * <p>
  * Unless explicitly requested otherwise, a set of default lookups are included for convenience with these variable interpolation methods. These defaults are
@@ -669,6 +672,32 @@ public final class StringLookupFactory {
         }
     }
 
+    /**
+     * Returns a lookup running the given lookup asynchronously on the given executor.
+     * <p>
+     * For example, to resolve the variables of a template concurrently:
+     * </p>
+     *
+     * <pre>
+     * StringSubstitutor substitutor = StringSubstitutor.createInterpolator();
+     * AsyncStringLookup asyncLookup = StringLookupFactory.INSTANCE.asyncStringLookup(substitutor.getStringLookup(), executor);
+     * CompletableFuture&lt;String&gt; result = substitutor.compile("${dns:address|apache.org} ${url:UTF-8:https://apache.org}").renderAsync(asyncLookup);
+     * </pre>
+     * <p>
+     * Lookups blocking on I/O are best run on an executor with enough threads for all concurrent lookups, like a cached
+     * thread pool or, on Java 21 and later, a virtual thread per task executor. The blocking {@link StringLookup#lookup(String)} method of the returned lookup
+     * calls the given lookup in the calling thread.
+     * </p>
+     *
+     * @param stringLookup the lookup to run, not null.
+     * @param executor     the executor running the lookups, not null.
+     * @return a new AsyncStringLookup.
+     * @since 1.14.0
+     */
+    public AsyncStringLookup asyncStringLookup(final StringLookup stringLookup, final Executor executor) {
+        return new ExecutorStringLookup(stringLookup, executor);
+    }
+
     /**
      * Returns the Base64DecoderStringLookup singleton instance to decode Base64 strings.
      * <p>
@@ -765,6 +794,63 @@ public final class StringLookupFactory {
         return BiFunctionStringLookup.on(biFunction);
     }
 
+    /**
+     * Returns a new cache for the given lookup holding at most {@code maxSize} keys and evicting the least recently used
+     * key when full. Entries do not expire and unknown keys are not cached.
+     * <p>
+     * For example, to cache DNS lookups in an interpolator:
+     * </p>
+     *
+     * <pre>
+     * Map&lt;String, StringLookup&gt; lookupMap = new HashMap&lt;&gt;();
+     * lookupMap.put("dns", StringLookupFactory.INSTANCE.cachingStringLookup(StringLookupFactory.INSTANCE.dnsStringLookup(), 1000));
+     * StringLookup variableResolver = StringLookupFactory.INSTANCE.interpolatorStringLookup(lookupMap, null, true);
+     * </pre>
+     *
+     * @param stringLookup the lookup to cache.
+     * @param maxSize      the maximum number of cached keys, greater than zero.
+     * @return a new CachingStringLookup.
+     * @since 1.14.0
+     */
+    public CachingStringLookup cachingStringLookup(final StringLookup stringLookup, final int maxSize) {
+        return cachingStringLookup(stringLookup, maxSize, CachingStringLookup.Eviction.LRU, null, false);
+    }
+
+    /**
+     * Returns a new cache for the given lookup.
+     *
+     * @param stringLookup the lookup to cache.
+     * @param maxSize      the maximum number of cached keys, greater than zero.
+     * @param eviction     selects the key to evict when the cache is full.
+     * @param timeToLive   the time after which an entry expires, positive, or null if entries do not expire.
+     * @param cacheNulls   whether to cache the keys for which the lookup returns null.
+     * @return a new CachingStringLookup.
+     * @since 1.14.0
+     */
+    public CachingStringLookup cachingStringLookup(final StringLookup stringLookup, final int maxSize,
+            final CachingStringLookup.Eviction eviction, final Duration timeToLive, final boolean cacheNulls) {
+        return new CachingStringLookup(stringLookup, maxSize, eviction, timeToLive, cacheNulls);
+    }
+
+    /**
+     * Returns a new cache for the given lookup, caching null values with their own time to live.
+     * <p>
+     * A null value usually means a key is unknown, and may be worth retrying sooner, or later, than a known value expires.
+     * </p>
+     *
+     * @param stringLookup   the lookup to cache.
+     * @param maxSize        the maximum number of cached keys, greater than zero.
+     * @param eviction       selects the key to evict when the cache is full.
+     * @param timeToLive     the time after which a non-null value expires, positive, or null if non-null values do not expire.
+     * @param nullTimeToLive the time after which a null value expires, positive, or null if null values do not expire.
+     * @return a new CachingStringLookup.
+     * @since 1.14.0
+     */
+    public CachingStringLookup cachingStringLookup(final StringLookup stringLookup, final int maxSize,
+            final CachingStringLookup.Eviction eviction, final Duration timeToLive, final Duration nullTimeToLive) {
+        return new CachingStringLookup(stringLookup, maxSize, eviction, timeToLive, true, nullTimeToLive, System::nanoTime);
+    }
+
     /**
      * Returns the ConstantStringLookup singleton instance to look up the value of a fully-qualified static final value.
      * <p>
@@ -868,6 +954,30 @@ public final class StringLookupFactory {
         return DnsStringLookup.INSTANCE;
     }
 
+    /**
+     * Returns a new DNS StringLookup instance caching resolved and unresolved keys.
+     * <p>
+     * The keys are the same as for {@link #dnsStringLookup()}. At most {@code maxSize} keys are cached, evicting the least recently used key when full.
+     * Resolved values are kept for {@code timeToLive}, and keys that could not be resolved, for example because the host is unknown, are kept for
+     * {@code negativeTimeToLive}. Threads looking up the same key at the same time share one resolution. The returned cache counts its hits and misses.
+     * </p>
+     *
+     * <pre>
+     * Map&lt;String, StringLookup&gt; lookupMap = new HashMap&lt;&gt;();
+     * lookupMap.put("dns", StringLookupFactory.INSTANCE.dnsStringLookup(1000, Duration.ofMinutes(5), Duration.ofSeconds(10)));
+     * </pre>
+     *
+     * @param maxSize            the maximum number of cached keys, greater than zero.
+     * @param timeToLive         the time after which a resolved value is resolved again, positive, or null if resolved values do not expire.
+     * @param negativeTimeToLive the time after which a key that could not be resolved is resolved again, positive, or null to not cache such keys.
+     * @return a new CachingStringLookup.
+     * @since 1.14.0
+     */
+    public CachingStringLookup dnsStringLookup(final int maxSize, final Duration timeToLive, final Duration negativeTimeToLive) {
+        return new CachingStringLookup(DnsStringLookup.INSTANCE, maxSize, CachingStringLookup.Eviction.LRU, timeToLive, negativeTimeToLive != null,
+            negativeTimeToLive, System::nanoTime);
+    }
+
     /**
      * Returns the EnvironmentVariableStringLookup singleton instance where the lookup key is an environment variable name.
      * <p>
@@ -989,6 +1099,25 @@ public final class StringLookupFactory {
         return new FileStringLookup(fences);
     }
 
+    /**
+     * Returns a fenced file StringLookup instance that caches file contents.
+     * <p>
+     * Contents are cached by file and charset and are read again when the file's last modified time or size changes, so a template that inlines the same
+     * file many times reads and decodes it once. At most {@code maxCachedBytes} bytes of files are kept; larger files are read on each lookup.
+     * </p>
+     * <p>
+     * Otherwise the same as {@link #fileStringLookup(Path...)}.
+     * </p>
+     *
+     * @param maxCachedBytes the maximum total size of the cached files, 0 to read files on each lookup.
+     * @param fences         The fences guarding Path resolution.
+     * @return a file StringLookup instance.
+     * @since 1.14.0
+     */
+    public StringLookup fileStringLookup(final long maxCachedBytes, final Path... fences) {
+        return new FileStringLookup(maxCachedBytes, fences);
+    }
+
     /**
      * Returns a new function-based lookup where the request for a lookup is answered by applying the function with a lookup key.
      *
@@ -1045,6 +1174,24 @@ public final class StringLookupFactory {
         return new InterpolatorStringLookup(stringLookupMap, defaultStringLookup, addDefaultLookups);
     }
 
+    /**
+     * Returns a new InterpolatorStringLookup that notifies the given listener of each lookup, for example, to collect
+     * lookup counts and latencies per prefix. Otherwise the same as
+     * {@link #interpolatorStringLookup(Map, StringLookup, boolean)}.
+     *
+     * @param stringLookupMap     the map of string lookups.
+     * @param defaultStringLookup the default string lookup; this lookup is used when a variable cannot be resolved using the lookups in {@code stringLookupMap}
+     *                            or the configured default lookups (if enabled)
+     * @param addDefaultLookups   whether to use default lookups as described above.
+     * @param listener            the listener, may be null to create no events.
+     * @return a new InterpolatorStringLookup.
+     * @since 1.14.0
+     */
+    public StringLookup interpolatorStringLookup(final Map<String, StringLookup> stringLookupMap, final StringLookup defaultStringLookup,
+            final boolean addDefaultLookups, final StringLookupListener listener) {
+        return new InterpolatorStringLookup(stringLookupMap, defaultStringLookup, addDefaultLookups, listener);
+    }
+
     /**
      * Returns a new InterpolatorStringLookup using the given key-value pairs and the configured {@link #addDefaultStringLookups(Map) default lookups} to
      * resolve variables. (See the class documentation for details on how default lookups are configured.)
@@ -1540,6 +1687,80 @@ public final class StringLookupFactory {
         return UrlStringLookup.INSTANCE;
     }
 
+    /**
+     * Returns a new URL StringLookup instance that limits and caches the documents it reads.
+     * <p>
+     * The keys are the same as for {@link #urlStringLookup()}. Documents larger than {@code maxBodySize} bytes, and connections or reads taking longer than
+     * {@code timeout}, fail the lookup with an {@link IllegalArgumentException}.
+     * </p>
+     * <p>
+     * At most {@code maxCachedUrls} documents are cached, evicting the least recently used one when full. A cached document is served without a request for
+     * {@code timeToLive}. After that, it is revalidated before it is served: HTTP documents are requested with the {@code If-None-Match} and
+     * {@code If-Modified-Since} headers built from their {@code ETag} and {@code Last-Modified} response headers, and are only downloaded again if the server
+     * answers with a new document. During the {@code staleWhileRevalidate} window after the time to live, the cached document is served at once and
+     * revalidated in the background; if that revalidation fails, the cached document is kept until the window closes.
+     * Background revalidations run on a small pool of daemon threads shared by all instances; use
+     * {@link #urlStringLookup(int, int, Duration, Duration, Duration, Executor)} to choose the executor.
+     * </p>
+     *
+     * <pre>
+     * Map&lt;String, StringLookup&gt; lookupMap = new HashMap&lt;&gt;();
+     * Duration timeout = Duration.ofSeconds(5);
+     * lookupMap.put("url", StringLookupFactory.INSTANCE.urlStringLookup(100, 1024 * 1024, timeout, Duration.ofMinutes(1), Duration.ofMinutes(10)));
+     * </pre>
+     *
+     * @param maxCachedUrls        the maximum number of cached documents, 0 to download documents on each lookup.
+     * @param maxBodySize          the maximum document size in bytes, greater than zero.
+     * @param timeout              the connect and read timeout, positive, or null for no timeout.
+     * @param timeToLive           the time a cached document is served without revalidation, or null to revalidate on each lookup.
+     * @param staleWhileRevalidate the time a document past its time to live is served while it is revalidated in the background, or null to always revalidate
+     *                             before serving.
+     * @return a new URL StringLookup instance.
+     * @since 1.14.0
+     */
+    public StringLookup urlStringLookup(final int maxCachedUrls, final int maxBodySize, final Duration timeout, final Duration timeToLive,
+            final Duration staleWhileRevalidate) {
+        return new UrlStringLookup(maxCachedUrls, maxBodySize, timeout, timeToLive, staleWhileRevalidate, UrlStringLookup.DEFAULT_REVALIDATION_EXECUTOR,
+            System::nanoTime);
+    }
+
+    /**
+     * Returns a new URL StringLookup instance that limits and caches the documents it reads.
+     * <p>
+     * The keys are the same as for {@link #urlStringLookup()}. Documents larger than {@code maxBodySize} bytes, and connections or reads taking longer than
+     * {@code timeout}, fail the lookup with an {@link IllegalArgumentException}.
+     * </p>
+     * <p>
+     * At most {@code maxCachedUrls} documents are cached, evicting the least recently used one when full. A cached document is served without a request for
+     * {@code timeToLive}. After that, it is revalidated before it is served: HTTP documents are requested with the {@code If-None-Match} and
+     * {@code If-Modified-Since} headers built from their {@code ETag} and {@code Last-Modified} response headers, and are only downloaded again if the server
+     * answers with a new document. During the {@code staleWhileRevalidate} window after the time to live, the cached document is served at once and
+     * revalidated in the background on {@code revalidationExecutor}; if that revalidation fails, the cached document is kept until the window closes.
+     * Revalidations do blocking network I/O, so prefer a dedicated executor to the common fork-join pool.
+     * </p>
+     *
+     * <pre>
+     * Map&lt;String, StringLookup&gt; lookupMap = new HashMap&lt;&gt;();
+     * Duration timeout = Duration.ofSeconds(5);
+     * lookupMap.put("url", StringLookupFactory.INSTANCE.urlStringLookup(100, 1024 * 1024, timeout, Duration.ofMinutes(1), Duration.ofMinutes(10),
+     *     executor));
+     * </pre>
+     *
+     * @param maxCachedUrls        the maximum number of cached documents, 0 to download documents on each lookup.
+     * @param maxBodySize          the maximum document size in bytes, greater than zero.
+     * @param timeout              the connect and read timeout, positive, or null for no timeout.
+     * @param timeToLive           the time a cached document is served without revalidation, or null to revalidate on each lookup.
+     * @param staleWhileRevalidate the time a document past its time to live is served while it is revalidated in the background, or null to always revalidate
+     *                             before serving.
+     * @param revalidationExecutor the executor running background revalidations, not null.
+     * @return a new URL StringLookup instance.
+     * @since 1.14.0
+     */
+    public StringLookup urlStringLookup(final int maxCachedUrls, final int maxBodySize, final Duration timeout, final Duration timeToLive,
+            final Duration staleWhileRevalidate, final Executor revalidationExecutor) {
+        return new UrlStringLookup(maxCachedUrls, maxBodySize, timeout, timeToLive, staleWhileRevalidate, revalidationExecutor, System::nanoTime);
+    }
+
     /**
      * Returns the XmlDecoderStringLookup singleton instance.
      * <p>
@@ -1730,4 +1951,26 @@ public final class StringLookupFactory {
     public StringLookup xmlStringLookup(final Map<String, Boolean> xPathFactoryFeatures, final Path... fences) {
         return new XmlStringLookup(xPathFactoryFeatures, fences);
     }
+
+    /**
+     * Returns a fenced XML StringLookup instance that caches parsed documents and compiled XPath expressions.
+     * <p>
+     * Each document is parsed once and its DOM tree is kept until the file's last modified time or size changes, so repeated lookups in the same
+     * document only evaluate a compiled XPath expression. At most {@code maxCachedDocuments} documents are kept. The XPath factory features are applied when
+     * compiling expressions, and the {@link javax.xml.XMLConstants#FEATURE_SECURE_PROCESSING secure processing} feature is also applied when parsing
+     * documents.
+     * </p>
+     * <p>
+     * Otherwise the same as {@link #xmlStringLookup(Map, Path...)}.
+     * </p>
+     *
+     * @param xPathFactoryFeatures XPathFactory features to set.
+     * @param maxCachedDocuments   the maximum number of cached documents, 0 to parse documents on each lookup.
+     * @param fences               The fences guarding Path resolution.
+     * @return An XML StringLookup instance.
+     * @since 1.14.0
+     */
+    public StringLookup xmlStringLookup(final Map<String, Boolean> xPathFactoryFeatures, final int maxCachedDocuments, final Path... fences) {
+        return new XmlStringLookup(xPathFactoryFeatures, maxCachedDocuments, fences);
+    }
 }
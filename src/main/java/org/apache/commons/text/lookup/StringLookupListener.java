@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.commons.text.lookup;
+
+/**
+ * Receives an event for each lookup performed by an interpolator {@link StringLookup}, for example, to export the
+ * number of lookups and the lookup latency per prefix.
+ * <p>
+ * Install a listener with
+ * {@link StringLookupFactory#interpolatorStringLookup(java.util.Map, StringLookup, boolean, StringLookupListener)}.
+ * Listeners are called on the thread performing the lookup and should return quickly; a listener shared by several
+ * threads must be thread-safe. Looked up values are not passed to listeners since they may be secrets.
+ * </p>
+ *
+ * @since 1.14.0
+ */
+@FunctionalInterface
+public interface StringLookupListener {
+
+    /**
+     * Called after a lookup.
+     * <p>
+     * A key with a prefix that the prefixed lookup cannot resolve is passed on to the default lookup, which creates a
+     * second event with a null prefix.
+     * </p>
+     *
+     * @param prefix the lookup prefix, for example {@code "env"}, or null for the default lookup.
+     * @param key the key looked up, without the prefix.
+     * @param found whether the lookup returned a value.
+     * @param nanos the time the lookup took, in nanoseconds.
+     */
+    void onLookup(String prefix, String key, boolean found, long nanos);
+}
@@ -14,15 +14,29 @@
  * See the license for the specific language governing permissions and
  * limitations under the license.
  */
-
 package org.apache.commons.text.lookup;
 
-import java.io.BufferedInputStream;
-import java.io.InputStreamReader;
-import java.io.StringWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
 
 /**
  * Looks up keys from an XML document.
@@ -32,21 +46,202 @@ import org.apache.commons.lang3.StringUtils;
  * <p>
  * For example: "UTF-8:https://www.apache.org".
  * </p>
+ * <p>
+ * An instance may limit the size of the documents it reads, time out connecting and reading, and cache documents. A
+ * cached document is served without a request for its time to live. It is then revalidated: for HTTP URLs, with a
+ * conditional request using its {@code ETag} and {@code Last-Modified} response headers, so an unchanged document is
+ * not downloaded again. If configured, a document past its time to live is still served for a while, the
+ * stale-while-revalidate window, while it is revalidated in the background on the configured executor; by default,
+ * background revalidations run on a small pool of daemon threads shared by all instances, so blocking network I/O never
+ * occupies the common fork-join pool.
+ * Threads missing the same document at the same time may both download it.
+ * </p>
  *
  * @since 1.5
  */
 final class UrlStringLookup extends AbstractStringLookup {
 
+    /**
+     * A cached document.
+     */
+    private static final class Document {
+
+        /** The decoded document. */
+        private final String value;
+
+        /** The {@code ETag} response header, may be null. */
+        private final String eTag;
+
+        /** The {@code Last-Modified} response header, may be null. */
+        private final String lastModified;
+
+        /** The {@link System#nanoTime()} at which the document was last downloaded or revalidated. */
+        private final long validatedAt;
+
+        /** Whether a background revalidation is in progress. */
+        private final AtomicBoolean revalidating = new AtomicBoolean();
+
+        private Document(final String value, final String eTag, final String lastModified, final long validatedAt) {
+            this.value = value;
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.validatedAt = validatedAt;
+        }
+    }
+
+    /** The number of threads running background revalidations by default. */
+    private static final int REVALIDATION_THREADS = 2;
+
+    /** The time an idle default revalidation thread is kept, in seconds. */
+    private static final long REVALIDATION_KEEP_ALIVE_SECONDS = 60;
+
+    /**
+     * Runs background revalidations on a few daemon threads shared by all instances, started when needed and stopped
+     * when idle. Revalidations wait in the queue when all threads are busy; at most one revalidation per cached document
+     * is queued or in progress, so the queue is bounded by the cache sizes.
+     */
+    static final Executor DEFAULT_REVALIDATION_EXECUTOR = newRevalidationExecutor();
+
     /**
      * Defines the singleton for this class.
      */
     static final UrlStringLookup INSTANCE = new UrlStringLookup();
 
+    /** The size of the read buffer. */
+    private static final int BUFFER_SIZE = 8192;
+
+    /** The initial capacity of the cache map. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The load factor of the cache map. */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * Creates the default executor of background revalidations.
+     *
+     * @return a new executor.
+     */
+    private static Executor newRevalidationExecutor() {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(REVALIDATION_THREADS, REVALIDATION_THREADS,
+            REVALIDATION_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                final Thread thread = new Thread(runnable, "UrlStringLookup revalidation");
+                thread.setDaemon(true);
+                return thread;
+            });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /** The cached documents by key in access order, null if documents are not cached. Guards itself. */
+    private final Map<String, Document> cache;
+
+    /** The maximum document size in bytes. */
+    private final int maxBodySize;
+
+    /** The executor running background revalidations. */
+    private final Executor revalidationExecutor;
+
+    /** The time source, in nanoseconds. */
+    private final LongSupplier nanoTime;
+
+    /** The stale-while-revalidate window in nanoseconds. */
+    private final long staleWhileRevalidateNanos;
+
+    /** The connect and read timeout in milliseconds, 0 for no timeout. */
+    private final int timeoutMillis;
+
+    /** The time to live of cached documents in nanoseconds. */
+    private final long timeToLiveNanos;
+
     /**
-     * No need to build instances for now.
+     * Constructs an instance without limits or cache.
      */
     private UrlStringLookup() {
-        // empty
+        this(0, Integer.MAX_VALUE, null, null, null, DEFAULT_REVALIDATION_EXECUTOR, System::nanoTime);
+    }
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param maxCachedUrls the maximum number of cached documents, 0 to download documents on each lookup.
+     * @param maxBodySize the maximum document size in bytes, greater than zero.
+     * @param timeout the connect and read timeout, positive, or null for no timeout.
+     * @param timeToLive the time a cached document is served without revalidation, or null to revalidate on each lookup.
+     * @param staleWhileRevalidate the time a document past its time to live is served while it is revalidated in the
+     *        background, or null to revalidate before serving it.
+     * @param revalidationExecutor the executor running background revalidations.
+     * @param nanoTime the time source, in nanoseconds.
+     */
+    UrlStringLookup(final int maxCachedUrls, final int maxBodySize, final Duration timeout, final Duration timeToLive,
+        final Duration staleWhileRevalidate, final Executor revalidationExecutor, final LongSupplier nanoTime) {
+        Validate.isTrue(maxCachedUrls >= 0, "maxCachedUrls must not be negative: %d", maxCachedUrls);
+        Validate.isTrue(maxBodySize > 0, "maxBodySize must be greater than zero: %d", maxBodySize);
+        Validate.isTrue(timeout == null || !timeout.isNegative() && !timeout.isZero(), "timeout must be positive: %s",
+            timeout);
+        Validate.isTrue(timeToLive == null || !timeToLive.isNegative(), "timeToLive must not be negative: %s",
+            timeToLive);
+        Validate.isTrue(staleWhileRevalidate == null || !staleWhileRevalidate.isNegative(),
+            "staleWhileRevalidate must not be negative: %s", staleWhileRevalidate);
+        this.cache = maxCachedUrls == 0 ? null : new LinkedHashMap<String, Document>(INITIAL_CAPACITY, LOAD_FACTOR, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Document> eldest) {
+                return size() > maxCachedUrls;
+            }
+        };
+        this.maxBodySize = maxBodySize;
+        this.timeoutMillis = timeout == null ? 0 : (int) Math.min(Integer.MAX_VALUE, Math.max(1, timeout.toMillis()));
+        this.timeToLiveNanos = timeToLive == null ? 0 : timeToLive.toNanos();
+        this.staleWhileRevalidateNanos = staleWhileRevalidate == null ? 0 : staleWhileRevalidate.toNanos();
+        this.revalidationExecutor = Objects.requireNonNull(revalidationExecutor, "revalidationExecutor");
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Downloads a document, or revalidates a cached one.
+     *
+     * @param url the URL.
+     * @param charsetName the charset of the document.
+     * @param previous the cached document to revalidate, may be null.
+     * @return the downloaded or revalidated document.
+     * @throws IOException if an I/O error occurs, or if the document is too large.
+     */
+    private Document download(final URL url, final String charsetName, final Document previous) throws IOException {
+        final Charset charset = Charset.forName(charsetName);
+        final URLConnection connection = url.openConnection();
+        connection.setConnectTimeout(timeoutMillis);
+        connection.setReadTimeout(timeoutMillis);
+        if (previous != null && connection instanceof HttpURLConnection) {
+            if (previous.eTag != null) {
+                connection.setRequestProperty("If-None-Match", previous.eTag);
+            }
+            if (previous.lastModified != null) {
+                connection.setRequestProperty("If-Modified-Since", previous.lastModified);
+            }
+            if (((HttpURLConnection) connection).getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                ((HttpURLConnection) connection).disconnect();
+                return new Document(previous.value, previous.eTag, previous.lastModified, nanoTime.getAsLong());
+            }
+        }
+        try (InputStream inputStream = connection.getInputStream()) {
+            final long contentLength = connection.getContentLengthLong();
+            if (contentLength > maxBodySize) {
+                throw new IOException(String.format("Content length %,d exceeds the maximum of %,d bytes.", contentLength, maxBodySize));
+            }
+            final ByteArrayOutputStream body = new ByteArrayOutputStream(Math.min(BUFFER_SIZE, maxBodySize));
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int n;
+            while (-1 != (n = inputStream.read(buffer))) {
+                if (n > maxBodySize - body.size()) {
+                    throw new IOException(String.format("Content exceeds the maximum of %,d bytes.", maxBodySize));
+                }
+                body.write(buffer, 0, n);
+            }
+            return new Document(new String(body.toByteArray(), charset), connection.getHeaderField("ETag"),
+                connection.getHeaderField("Last-Modified"), nanoTime.getAsLong());
+        }
     }
 
     /**
@@ -73,21 +268,73 @@ final class UrlStringLookup extends AbstractStringLookup {
         final String urlStr = StringUtils.substringAfter(key, SPLIT_CH);
         try {
             final URL url = new URL(urlStr);
-            final int size = 8192;
-            final StringWriter writer = new StringWriter(size);
-            final char[] buffer = new char[size];
-            try (BufferedInputStream bis = new BufferedInputStream(url.openStream());
-                InputStreamReader reader = new InputStreamReader(bis, charsetName)) {
-                int n;
-                while (-1 != (n = reader.read(buffer))) {
-                    writer.write(buffer, 0, n);
+            if (cache == null) {
+                return download(url, charsetName, null).value;
+            }
+            final Document entry;
+            synchronized (cache) {
+                entry = cache.get(key);
+            }
+            if (entry != null) {
+                final long age = nanoTime.getAsLong() - entry.validatedAt;
+                if (age < timeToLiveNanos) {
+                    return entry.value;
+                }
+                if (age < timeToLiveNanos + staleWhileRevalidateNanos) {
+                    if (entry.revalidating.compareAndSet(false, true)) {
+                        try {
+                            revalidationExecutor.execute(() -> revalidate(key, url, charsetName, entry));
+                        } catch (final RejectedExecutionException e) {
+                            // try again on a later lookup
+                            entry.revalidating.set(false);
+                        }
+                    }
+                    return entry.value;
                 }
             }
-            return writer.toString();
+            final Document downloaded = download(url, charsetName, entry);
+            synchronized (cache) {
+                cache.put(key, downloaded);
+            }
+            return downloaded.value;
         } catch (final Exception e) {
             throw IllegalArgumentExceptions.format(e, "Error looking up URL [%s] with Charset [%s].", urlStr,
                 charsetName);
         }
     }
 
+    /**
+     * Revalidates a cached document in the background, keeping the stale document if revalidation fails.
+     *
+     * @param key the lookup key.
+     * @param url the URL.
+     * @param charsetName the charset of the document.
+     * @param entry the stale document.
+     */
+    private void revalidate(final String key, final URL url, final String charsetName, final Document entry) {
+        try {
+            final Document downloaded = download(url, charsetName, entry);
+            synchronized (cache) {
+                // unless the document was replaced meanwhile
+                cache.replace(key, entry, downloaded);
+            }
+        } catch (final IOException | RuntimeException e) {
+            // serve the stale document until the window closes, then fail in the caller
+            entry.revalidating.set(false);
+        }
+    }
+
+    /**
+     * Gets the number of cached documents.
+     *
+     * @return the number of cached documents.
+     */
+    int size() {
+        if (cache == null) {
+            return 0;
+        }
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
 }
@@ -17,19 +17,29 @@
 
 package org.apache.commons.text.lookup;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.xpath.XPathException;
+import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathFactory;
+import javax.xml.xpath.XPathFactoryConfigurationException;
 
 import org.apache.commons.lang3.StringUtils;
+import org.w3c.dom.Document;
 import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
 
 /**
  * Looks up keys from an XML document.
@@ -39,6 +49,11 @@ import org.xml.sax.InputSource;
  * <p>
  * For example: "com/domain/document.xml:/path/to/node".
  * </p>
+ * <p>
+ * An instance created with a document cache keeps the parsed DOM of each document until the file's last modified time
+ * or size changes, and keeps each XPath expression compiled. The XPath factory features are applied when compiling
+ * expressions, and the secure processing feature is also applied when parsing documents.
+ * </p>
  *
  * @since 1.5
  */
@@ -59,11 +74,26 @@ final class XmlStringLookup extends AbstractPathFencedLookup {
      */
     static final XmlStringLookup INSTANCE = new XmlStringLookup(DEFAULT_FEATURES, (Path[]) null);
 
+    /**
+     * The maximum number of compiled XPath expressions kept by an instance with a document cache.
+     */
+    private static final int MAX_CACHED_EXPRESSIONS = 1000;
+
     /**
      * Defines XPath factory features.
      */
     private final Map<String, Boolean> xPathFactoryFeatures;
 
+    /**
+     * The parsed documents, null if documents are not cached.
+     */
+    private final PathCache<Document> documents;
+
+    /**
+     * The compiled XPath expressions by source, null if documents are not cached.
+     */
+    private final Map<String, XPathExpression> expressions;
+
     /**
      * No need to build instances for now.
      *
@@ -71,8 +101,48 @@ final class XmlStringLookup extends AbstractPathFencedLookup {
      * @see XPathFactory#setFeature(String, boolean)
      */
     XmlStringLookup(final Map<String, Boolean> xPathFactoryFeatures, final Path... fences) {
+        this(xPathFactoryFeatures, 0, fences);
+    }
+
+    /**
+     * Constructs a new instance that caches documents.
+     *
+     * @param xPathFactoryFeatures XPathFactory features to set.
+     * @param maxCachedDocuments the maximum number of cached documents, 0 to parse documents on each lookup.
+     * @param fences The fences guarding Path resolution.
+     * @see XPathFactory#setFeature(String, boolean)
+     */
+    XmlStringLookup(final Map<String, Boolean> xPathFactoryFeatures, final int maxCachedDocuments, final Path... fences) {
         super(fences);
         this.xPathFactoryFeatures = Objects.requireNonNull(xPathFactoryFeatures, "xPathFfactoryFeatures");
+        if (maxCachedDocuments > 0) {
+            documents = new PathCache<>(maxCachedDocuments);
+            expressions = new ConcurrentHashMap<>();
+        } else {
+            documents = null;
+            expressions = null;
+        }
+    }
+
+    /**
+     * Gets the compiled form of an XPath expression.
+     *
+     * @param xpath the XPath expression.
+     * @return the compiled expression.
+     * @throws XPathException if the expression cannot be compiled.
+     */
+    private XPathExpression compile(final String xpath) throws XPathException {
+        XPathExpression expression = expressions.get(xpath);
+        if (expression == null) {
+            expression = newXPathFactory().newXPath().compile(xpath);
+            final Iterator<String> iterator = expressions.keySet().iterator();
+            while (expressions.size() >= MAX_CACHED_EXPRESSIONS && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+            expressions.put(xpath, expression);
+        }
+        return expression;
     }
 
     /**
@@ -97,16 +167,64 @@ final class XmlStringLookup extends AbstractPathFencedLookup {
         }
         final String documentPath = keys[0];
         final String xpath = StringUtils.substringAfter(key, SPLIT_CH);
-        try (InputStream inputStream = Files.newInputStream(getPath(documentPath))) {
-            final XPathFactory factory = XPathFactory.newInstance();
-            for (final Entry<String, Boolean> p : xPathFactoryFeatures.entrySet()) {
-                factory.setFeature(p.getKey(), p.getValue());
+        if (documents != null) {
+            try {
+                final XPathExpression expression = compile(xpath);
+                final Document document = documents.get(getPath(documentPath), this::parse);
+                // neither compiled expressions nor DOM trees are thread-safe
+                synchronized (expression) {
+                    synchronized (document) {
+                        return expression.evaluate(document);
+                    }
+                }
+            } catch (final Exception e) {
+                throw IllegalArgumentExceptions.format(e, "Error looking up XML document [%s] and XPath [%s].",
+                        documentPath, xpath);
             }
-            return factory.newXPath().evaluate(xpath, new InputSource(inputStream));
+        }
+        try (InputStream inputStream = Files.newInputStream(getPath(documentPath))) {
+            return newXPathFactory().newXPath().evaluate(xpath, new InputSource(inputStream));
         } catch (final Exception e) {
             throw IllegalArgumentExceptions.format(e, "Error looking up XML document [%s] and XPath [%s].",
                     documentPath, xpath);
         }
     }
 
+    /**
+     * Creates an XPath factory with the XPath factory features.
+     *
+     * @return a new XPath factory.
+     * @throws XPathFactoryConfigurationException if a feature cannot be set.
+     */
+    private XPathFactory newXPathFactory() throws XPathFactoryConfigurationException {
+        final XPathFactory factory = XPathFactory.newInstance();
+        for (final Entry<String, Boolean> p : xPathFactoryFeatures.entrySet()) {
+            factory.setFeature(p.getKey(), p.getValue());
+        }
+        return factory;
+    }
+
+    /**
+     * Parses an XML document for the document cache.
+     *
+     * @param path the document path.
+     * @return the document.
+     * @throws IOException if the document cannot be read or parsed.
+     */
+    private Document parse(final Path path) throws IOException {
+        final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            final Boolean secureProcessing = xPathFactoryFeatures.get(XMLConstants.FEATURE_SECURE_PROCESSING);
+            if (secureProcessing != null) {
+                factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, secureProcessing);
+            }
+            final InputSource inputSource = new InputSource(inputStream);
+            inputSource.setSystemId(path.toUri().toString());
+            return factory.newDocumentBuilder().parse(inputSource);
+        } catch (final ParserConfigurationException | SAXException e) {
+            throw new IOException(e);
+        }
+    }
+
 }
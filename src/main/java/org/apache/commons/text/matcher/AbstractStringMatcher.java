@@ -121,6 +121,33 @@ abstract class AbstractStringMatcher implements StringMatcher {
             this.chars = chars.clone();
         }
 
+        /**
+         * Returns the index of the first match at or after {@code start}, scanning for the first character of the
+         * string.
+         *
+         * @param buffer the text content to match against, do not change
+         * @param start the position to start the search at
+         * @param bufferStart the first active index in the buffer
+         * @param bufferEnd the end index of the active buffer, valid for buffer
+         * @return The index of the first match, {@code -1} if there is no match
+         * @since 1.14.0
+         */
+        @Override
+        public int indexOf(final char[] buffer, final int start, final int bufferStart, final int bufferEnd) {
+            final int len = size();
+            if (len == 0) {
+                return -1;
+            }
+            final char first = chars[0];
+            final int last = bufferEnd - len;
+            for (int i = start; i <= last; i++) {
+                if (buffer[i] == first && isMatch(buffer, i, bufferStart, bufferEnd) != 0) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
         /**
          * Returns the number of matching characters, {@code 0} if there is no match.
          *
@@ -206,6 +233,26 @@ abstract class AbstractStringMatcher implements StringMatcher {
             this.ch = ch;
         }
 
+        /**
+         * Returns the index of the first occurrence of the character at or after {@code start}.
+         *
+         * @param buffer the text content to match against, do not change
+         * @param start the position to start the search at
+         * @param bufferStart unused
+         * @param bufferEnd the end index of the active buffer, valid for buffer
+         * @return The index of the first match, {@code -1} if there is no match
+         * @since 1.14.0
+         */
+        @Override
+        public int indexOf(final char[] buffer, final int start, final int bufferStart, final int bufferEnd) {
+            for (int i = start; i < bufferEnd; i++) {
+                if (buffer[i] == ch) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
         /**
          * Returns {@code 1} if there is a match, or {@code 0} if there is no match.
          *
@@ -330,6 +377,21 @@ abstract class AbstractStringMatcher implements StringMatcher {
         NoneMatcher() {
         }
 
+        /**
+         * Always returns {@code -1}.
+         *
+         * @param buffer unused
+         * @param start unused
+         * @param bufferStart unused
+         * @param bufferEnd unused
+         * @return {@code -1}
+         * @since 1.14.0
+         */
+        @Override
+        public int indexOf(final char[] buffer, final int start, final int bufferStart, final int bufferEnd) {
+            return -1;
+        }
+
         /**
          * Always returns {@code 0}.
          *
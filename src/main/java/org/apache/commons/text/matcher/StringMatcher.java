@@ -37,6 +37,31 @@ public interface StringMatcher {
         return StringMatcherFactory.INSTANCE.andMatcher(this, stringMatcher);
     }
 
+    /**
+     * Returns the index of the first match at or after {@code start}, or {@code -1} if there is none.
+     * <p>
+     * This is equivalent to calling {@link #isMatch(char[], int, int, int)} at each position from {@code start} to
+     * {@code bufferEnd} and returning the first position that matches, which is what the default implementation does.
+     * Matchers for a single character or a string override it to scan the buffer for their first character in a tight
+     * loop, which is much faster when matches are sparse.
+     * </p>
+     *
+     * @param buffer the source text to search, do not change.
+     * @param start the position to start the search at.
+     * @param bufferStart the first active index in the buffer, valid in {@code buffer}.
+     * @param bufferEnd the end index (exclusive) of the active buffer, valid in {@code buffer}.
+     * @return The index of the first match, {@code -1} if there is no match.
+     * @since 1.14.0
+     */
+    default int indexOf(final char[] buffer, final int start, final int bufferStart, final int bufferEnd) {
+        for (int i = start; i < bufferEnd; i++) {
+            if (isMatch(buffer, i, bufferStart, bufferEnd) != 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Returns the number of matching characters, zero for no match.
      * <p>
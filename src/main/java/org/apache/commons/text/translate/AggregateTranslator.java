@@ -17,8 +17,11 @@
 package org.apache.commons.text.translate;
 
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Stream;
@@ -26,16 +29,36 @@ import java.util.stream.Stream;
 /**
  * Executes a sequence of translators one after the other. Execution ends whenever
  * the first translator consumes code points from the input.
+ * <p>
+ * The chain is compiled into a dispatch table indexed by character for the Latin-1 range. A character whose
+ * translation does not depend on the characters around it costs one table lookup: it is either replaced by a string
+ * or copied through. Other characters fall back to running the translators in order.
+ * </p>
  *
  * @since 1.0
  */
 public class AggregateTranslator extends CharSequenceTranslator {
 
+    /**
+     * The number of characters covered by the dispatch table.
+     */
+    private static final int TABLE_SIZE = 0x100;
+
     /**
      * Translator list.
      */
     private final List<CharSequenceTranslator> translators = new ArrayList<>();
 
+    /**
+     * The replacement of each character in the table, null if the character is copied through or falls back.
+     */
+    private final String[] replacements = new String[TABLE_SIZE];
+
+    /**
+     * The characters in the table that fall back to running the translators.
+     */
+    private final BitSet fallbacks = new BitSet(TABLE_SIZE);
+
     /**
      * Specify the translators to be used at creation time.
      *
@@ -45,6 +68,51 @@ public class AggregateTranslator extends CharSequenceTranslator {
         if (translators != null) {
             Stream.of(translators).filter(Objects::nonNull).forEach(this.translators::add);
         }
+        final StringWriter writer = new StringWriter();
+        for (char ch = 0; ch < TABLE_SIZE; ch++) {
+            compile(ch, writer);
+        }
+    }
+
+    /**
+     * Compiles the table entry of a character by running the translators on the character alone, as long as each
+     * translator up to the one consuming it handles the character on its own.
+     *
+     * @param ch the character.
+     * @param writer the scratch writer.
+     */
+    private void compile(final char ch, final StringWriter writer) {
+        final String input = String.valueOf(ch);
+        for (final CharSequenceTranslator translator : translators) {
+            if (!translator.isContextFree(ch)) {
+                fallbacks.set(ch);
+                return;
+            }
+            writer.getBuffer().setLength(0);
+            final int consumed;
+            try {
+                consumed = translator.translate(input, 0, writer);
+            } catch (final IOException e) {
+                // this should never ever happen while writing to a StringWriter
+                throw new UncheckedIOException(e);
+            }
+            if (consumed == 1) {
+                replacements[ch] = writer.toString();
+                return;
+            }
+            if (consumed != 0) {
+                fallbacks.set(ch);
+                return;
+            }
+        }
+    }
+
+    /**
+     * A character is handled on its own when its table entry does not fall back.
+     */
+    @Override
+    boolean isContextFree(final char ch) {
+        return getClass() == AggregateTranslator.class && ch < TABLE_SIZE && !fallbacks.get(ch);
     }
 
     /**
@@ -54,6 +122,17 @@ public class AggregateTranslator extends CharSequenceTranslator {
      */
     @Override
     public int translate(final CharSequence input, final int index, final Writer writer) throws IOException {
+        final char ch = input.charAt(index);
+        if (ch < TABLE_SIZE) {
+            final String replacement = replacements[ch];
+            if (replacement != null) {
+                writer.write(replacement);
+                return 1;
+            }
+            if (!fallbacks.get(ch)) {
+                return 0;
+            }
+        }
         for (final CharSequenceTranslator translator : translators) {
             final int consumed = translator.translate(input, index, writer);
             if (consumed != 0) {
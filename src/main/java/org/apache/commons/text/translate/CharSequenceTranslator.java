@@ -17,10 +17,10 @@
 package org.apache.commons.text.translate;
 
 import java.io.IOException;
-import java.io.StringWriter;
 import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.util.Locale;
+import java.util.Objects;
 
 import org.apache.commons.lang3.Validate;
 
@@ -49,6 +49,22 @@ public abstract class CharSequenceTranslator {
         return Integer.toHexString(codePoint).toUpperCase(Locale.ENGLISH);
     }
 
+    /**
+     * Gets the index after the code point at the given index, without reading past the end of the input.
+     *
+     * @param input the input.
+     * @param index the index of the code point.
+     * @param len the length of the input.
+     * @return the index after the code point.
+     */
+    private static int nextCodePoint(final CharSequence input, final int index, final int len) {
+        final int next = index + 1;
+        if (Character.isHighSurrogate(input.charAt(index)) && next < len && Character.isLowSurrogate(input.charAt(next))) {
+            return next + 1;
+        }
+        return next;
+    }
+
     /**
      * Construct a new instance.
      */
@@ -56,8 +72,28 @@ public abstract class CharSequenceTranslator {
         // empty
     }
 
+    /**
+     * Tests whether this translator handles the given character on its own, that is, whether the output and the
+     * number of code points consumed at a position holding the character never depend on the characters around it.
+     * {@link AggregateTranslator} relies on this to compile its chain into a dispatch table.
+     * <p>
+     * The default implementation returns {@code false}, which is always safe.
+     * </p>
+     *
+     * @param ch the character to test.
+     * @return whether this translator handles the character on its own.
+     */
+    boolean isContextFree(final char ch) {
+        return false;
+    }
+
     /**
      * Helper for non-Writer usage.
+     * <p>
+     * Untranslated input is copied in bulk, and no output buffer is allocated before the first character that needs
+     * translation. When no character needs translation, a {@code String} input is returned as is.
+     * </p>
+     *
      * @param input CharSequence to be translated
      * @return String output of translation
      */
@@ -66,11 +102,11 @@ public abstract class CharSequenceTranslator {
             return null;
         }
         try {
-            final StringWriter writer = new StringWriter(input.length() * 2);
-            translate(input, writer);
+            final RunWriter writer = new RunWriter(input);
+            translate(input, 0, input.length(), writer);
             return writer.toString();
         } catch (final IOException ioe) {
-            // this should never ever happen while writing to a StringWriter
+            // this should never ever happen while writing to a RunWriter
             throw new UncheckedIOException(ioe);
         }
     }
@@ -92,6 +128,9 @@ public abstract class CharSequenceTranslator {
     /**
      * Translate an input onto a Writer. This is intentionally final as its algorithm is
      * tightly coupled with the abstract method of this class.
+     * <p>
+     * Untranslated input is copied to the Writer in bulk.
+     * </p>
      *
      * @param input CharSequence that is being translated
      * @param writer Writer to translate the text to
@@ -102,23 +141,27 @@ public abstract class CharSequenceTranslator {
         if (input == null) {
             return;
         }
-        int pos = 0;
+        translate(input, 0, input.length(), new RunWriter(input, writer, 0));
+    }
+
+    /**
+     * Translates part of an input through a RunWriter, marking untranslated input as pending instead of writing it.
+     *
+     * @param input the input.
+     * @param start the index to start at.
+     * @param end the index to stop at, translations starting before it may consume input after it.
+     * @param writer the RunWriter for the input.
+     * @return the index translation stopped at.
+     * @throws IOException if the output of the RunWriter throws one.
+     */
+    private int translate(final CharSequence input, final int start, final int end, final RunWriter writer) throws IOException {
+        int pos = start;
         final int len = input.length();
-        while (pos < len) {
+        while (pos < end) {
             final int consumed = translate(input, pos, writer);
             if (consumed == 0) {
-                // inlined implementation of Character.toChars(Character.codePointAt(input, pos))
-                // avoids allocating temp char arrays and duplicate checks
-                final char c1 = input.charAt(pos);
-                writer.write(c1);
-                pos++;
-                if (Character.isHighSurrogate(c1) && pos < len) {
-                    final char c2 = input.charAt(pos);
-                    if (Character.isLowSurrogate(c2)) {
-                      writer.write(c2);
-                      pos++;
-                    }
-                }
+                pos = nextCodePoint(input, pos, len);
+                writer.skipped(pos);
                 continue;
             }
             // contract with translators is that they have to understand code points
@@ -126,7 +169,61 @@ public abstract class CharSequenceTranslator {
             for (int pt = 0; pt < consumed; pt++) {
                 pos += Character.charCount(Character.codePointAt(input, pos));
             }
+            writer.consumed(pos);
+        }
+        writer.flush();
+        return pos;
+    }
+
+    /**
+     * Translates an input onto an Appendable such as a {@link StringBuilder} or a
+     * {@link org.apache.commons.text.TextStringBuilder}.
+     * <p>
+     * Unlike {@link #translate(CharSequence, Writer)} with a {@link java.io.StringWriter}, no synchronized buffer is
+     * involved. Untranslated input is copied to the Appendable in bulk, and nothing is allocated per code point.
+     * </p>
+     *
+     * @param <A> the type of the Appendable.
+     * @param input CharSequence that is being translated, may be null.
+     * @param appendable Appendable to translate the text to.
+     * @return the given Appendable.
+     * @throws IOException if and only if the Appendable produces an IOException.
+     * @since 1.14.0
+     */
+    public final <A extends Appendable> A translateTo(final CharSequence input, final A appendable) throws IOException {
+        Objects.requireNonNull(appendable, "appendable");
+        if (input != null) {
+            translate(input, 0, input.length(), new RunWriter(input, appendable, 0));
+        }
+        return appendable;
+    }
+
+    /**
+     * Translates part of an input onto an Appendable, for example, to translate a stream one chunk at a time.
+     * <p>
+     * Translation starts at {@code start} and stops at the first code point boundary at or after {@code end}.
+     * Translators may read input after {@code end} to find the longest sequence starting before it, and a sequence
+     * starting before {@code end} may be consumed past it. A caller translating a stream leaves enough input after
+     * {@code end} for the longest sequence, and continues from the returned index with the next chunk appended.
+     * </p>
+     *
+     * @param input CharSequence that is being translated.
+     * @param start the index to start translating at.
+     * @param end the index to stop translating at.
+     * @param appendable Appendable to translate the text to.
+     * @return the index translation stopped at, at least {@code end}.
+     * @throws IOException if and only if the Appendable produces an IOException.
+     * @throws IndexOutOfBoundsException if {@code start} is negative, greater than {@code end}, or if {@code end} is
+     *         greater than the length of the input.
+     * @since 1.14.0
+     */
+    public final int translateTo(final CharSequence input, final int start, final int end, final Appendable appendable) throws IOException {
+        Objects.requireNonNull(input, "input");
+        Objects.requireNonNull(appendable, "appendable");
+        if (start < 0 || start > end || end > input.length()) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + input.length());
         }
+        return translate(input, start, end, new RunWriter(input, appendable, start));
     }
 
     /**
@@ -19,28 +19,86 @@ package org.apache.commons.text.translate;
 import java.io.IOException;
 import java.io.Writer;
 import java.security.InvalidParameterException;
+import java.util.Arrays;
 import java.util.BitSet;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Translates a value using a lookup table.
+ * <p>
+ * The keys are compiled into a character trie, so the longest key at a position is found in one forward walk over the
+ * input, without creating strings.
+ * </p>
  *
  * @since 1.0
  */
 public class LookupTranslator extends CharSequenceTranslator {
 
-    /** The mapping to be used in translation. */
-    private final Map<String, String> lookupMap;
+    /**
+     * A node of the key trie, immutable once built.
+     */
+    private static final class Node {
 
-    /** The first character of each key in the lookupMap. */
-    private final BitSet prefixSet;
+        /** The characters leading to the children, in ascending order. */
+        private final char[] chars;
+
+        /** The children, at the same index as their character. */
+        private final Node[] children;
+
+        /** The translation of the key ending at this node, null if no key ends here. */
+        private final String value;
+
+        /**
+         * Compiles a node from its builder.
+         *
+         * @param builder the builder.
+         */
+        private Node(final NodeBuilder builder) {
+            final int size = builder.children.size();
+            chars = new char[size];
+            children = new Node[size];
+            int i = 0;
+            for (final Map.Entry<Character, NodeBuilder> child : builder.children.entrySet()) {
+                chars[i] = child.getKey();
+                children[i] = new Node(child.getValue());
+                i++;
+            }
+            value = builder.value;
+        }
+
+        /**
+         * Gets the child for a character.
+         *
+         * @param ch the character.
+         * @return the child, or null.
+         */
+        private Node child(final char ch) {
+            if (chars.length == 1) {
+                return chars[0] == ch ? children[0] : null;
+            }
+            final int i = Arrays.binarySearch(chars, ch);
+            return i >= 0 ? children[i] : null;
+        }
+    }
+
+    /**
+     * A node of the key trie while it is built.
+     */
+    private static final class NodeBuilder {
 
-    /** The length of the shortest key in the lookupMap. */
-    private final int shortest;
+        /** The children by character. */
+        private final Map<Character, NodeBuilder> children = new TreeMap<>();
 
-    /** The length of the longest key in the lookupMap. */
-    private final int longest;
+        /** The translation of the key ending at this node, null if no key ends here. */
+        private String value;
+    }
+
+    /** The root of the key trie. */
+    private final Node root;
+
+    /** The first character of each key in the lookupMap. */
+    private final BitSet prefixSet;
 
     /**
      * Constructs the lookup table to be used in translation
@@ -57,24 +115,30 @@ public class LookupTranslator extends CharSequenceTranslator {
         if (lookupMap == null) {
             throw new InvalidParameterException("lookupMap cannot be null");
         }
-        this.lookupMap = new HashMap<>();
         this.prefixSet = new BitSet();
-        int currentShortest = Integer.MAX_VALUE;
-        int currentLongest = 0;
-
+        final NodeBuilder rootBuilder = new NodeBuilder();
         for (final Map.Entry<CharSequence, CharSequence> pair : lookupMap.entrySet()) {
-            this.lookupMap.put(pair.getKey().toString(), pair.getValue().toString());
-            this.prefixSet.set(pair.getKey().charAt(0));
-            final int sz = pair.getKey().length();
-            if (sz < currentShortest) {
-                currentShortest = sz;
-            }
-            if (sz > currentLongest) {
-                currentLongest = sz;
+            final String key = pair.getKey().toString();
+            this.prefixSet.set(key.charAt(0));
+            NodeBuilder node = rootBuilder;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), k -> new NodeBuilder());
             }
+            node.value = pair.getValue().toString();
+        }
+        this.root = new Node(rootBuilder);
+    }
+
+    /**
+     * A character is handled on its own when it does not start a key or when the key it starts is a single character.
+     * Subclasses may override {@link #translate(CharSequence, int, Writer)}, so they are never trusted.
+     */
+    @Override
+    boolean isContextFree(final char ch) {
+        if (getClass() != LookupTranslator.class) {
+            return false;
         }
-        this.shortest = currentShortest;
-        this.longest = currentLongest;
+        return !prefixSet.get(ch) || root.child(ch).chars.length == 0;
     }
 
     /**
@@ -84,19 +148,24 @@ public class LookupTranslator extends CharSequenceTranslator {
     public int translate(final CharSequence input, final int index, final Writer writer) throws IOException {
         // check if translation exists for the input at position index
         if (prefixSet.get(input.charAt(index))) {
-            int max = longest;
-            if (index + longest > input.length()) {
-                max = input.length() - index;
-            }
-            // implement greedy algorithm by trying maximum match first
-            for (int i = max; i >= shortest; i--) {
-                final CharSequence subSeq = input.subSequence(index, index + i);
-                final String result = lookupMap.get(subSeq.toString());
-
-                if (result != null) {
-                    writer.write(result);
-                    return Character.codePointCount(subSeq, 0, subSeq.length());
+            // implement greedy algorithm by remembering the longest match
+            final int length = input.length();
+            String result = null;
+            int end = index;
+            Node node = root;
+            for (int i = index; i < length; i++) {
+                node = node.child(input.charAt(i));
+                if (node == null) {
+                    break;
                 }
+                if (node.value != null) {
+                    result = node.value;
+                    end = i + 1;
+                }
+            }
+            if (result != null) {
+                writer.write(result);
+                return Character.codePointCount(input, index, end);
             }
         }
         return 0;
@@ -98,6 +98,14 @@ public class NumericEntityEscaper extends CodePointTranslator {
         this.between = between;
     }
 
+    /**
+     * A character that is not a surrogate is handled on its own, unless a subclass may have changed the translation.
+     */
+    @Override
+    boolean isContextFree(final char ch) {
+        return getClass() == NumericEntityEscaper.class && !Character.isSurrogate(ch);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -80,6 +80,14 @@ public class NumericEntityUnescaper extends CharSequenceTranslator {
         this.options = ArrayUtils.isEmpty(options) ? DEFAULT_OPTIONS : EnumSet.copyOf(Arrays.asList(options));
     }
 
+    /**
+     * A character other than {@code '&'} is never translated, unless a subclass may have changed the translation.
+     */
+    @Override
+    boolean isContextFree(final char ch) {
+        return getClass() == NumericEntityUnescaper.class && ch != '&';
+    }
+
     /**
      * Tests whether the passed in option is currently set.
      *
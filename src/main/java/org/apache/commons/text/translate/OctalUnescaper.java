@@ -38,6 +38,14 @@ public class OctalUnescaper extends CharSequenceTranslator {
         // empty
     }
 
+    /**
+     * A character other than a backslash is never translated, unless a subclass may have changed the translation.
+     */
+    @Override
+    boolean isContextFree(final char ch) {
+        return getClass() == OctalUnescaper.class && ch != '\\';
+    }
+
     /**
      * Tests if the given char is an octal digit. Octal digits are the character representations of the digits 0 to 7.
      *
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.text.translate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+
+/**
+ * Writes the output of a translation to an {@link Appendable}, copying runs of untranslated input in bulk.
+ * <p>
+ * The translation loop marks untranslated input as pending instead of writing it one character at a time. The pending
+ * run is copied before anything a translator writes and when the translation is flushed. When collecting into a
+ * string, no buffer is allocated until the output differs from the input, so an input that needs no translation is
+ * returned as is.
+ * </p>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ */
+final class RunWriter extends Writer {
+
+    /** The input being translated. */
+    private final CharSequence input;
+
+    /** The output; when collecting into a string, null until the output differs from the input. */
+    private Appendable output;
+
+    /** The start of the pending run of untranslated input. */
+    private int runStart;
+
+    /** The end of the pending run of untranslated input, exclusive. */
+    private int runEnd;
+
+    /**
+     * Constructs a new instance collecting into a string.
+     *
+     * @param input the input being translated.
+     */
+    RunWriter(final CharSequence input) {
+        this.input = input;
+    }
+
+    /**
+     * Constructs a new instance writing to an appendable.
+     *
+     * @param input the input being translated.
+     * @param output the output.
+     * @param start the index translation starts at.
+     */
+    RunWriter(final CharSequence input, final Appendable output, final int start) {
+        this.input = input;
+        this.output = output;
+        this.runStart = start;
+        this.runEnd = start;
+    }
+
+    @Override
+    public void close() {
+        // empty
+    }
+
+    /**
+     * Marks the input up to the given index as translated; the pending run then starts at that index.
+     *
+     * @param end the end of the translated input, exclusive.
+     * @throws IOException if the output throws one.
+     */
+    void consumed(final int end) throws IOException {
+        output();
+        runStart = end;
+        runEnd = end;
+    }
+
+    /**
+     * Copies the pending run to the output. The output itself is not flushed.
+     *
+     * @throws IOException if the output throws one.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (!isUntouched()) {
+            output();
+        }
+    }
+
+    /**
+     * Tests whether the output is still the input itself, when collecting into a string and nothing was translated.
+     *
+     * @return whether the output is still the input itself.
+     */
+    private boolean isUntouched() {
+        return output == null && runStart == 0 && runEnd == input.length();
+    }
+
+    /**
+     * Copies the pending run to the output.
+     *
+     * @return the output.
+     * @throws IOException if the output throws one.
+     */
+    private Appendable output() throws IOException {
+        if (output == null) {
+            output = new StringBuilder(input.length() * 2);
+        }
+        if (runStart < runEnd) {
+            output.append(input, runStart, runEnd);
+            runStart = runEnd;
+        }
+        return output;
+    }
+
+    /**
+     * Marks the input up to the given index as untranslated, extending the pending run.
+     *
+     * @param end the end of the untranslated input, exclusive.
+     */
+    void skipped(final int end) {
+        runEnd = end;
+    }
+
+    /**
+     * Gets the output as a string. When collecting into a string and nothing was translated, this is the input itself.
+     *
+     * @return the output.
+     */
+    @Override
+    public String toString() {
+        if (isUntouched()) {
+            return input.toString();
+        }
+        try {
+            return output().toString();
+        } catch (final IOException e) {
+            // this should never ever happen while appending to a StringBuilder
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void write(final char[] cbuf, final int off, final int len) throws IOException {
+        final Appendable appendable = output();
+        if (appendable instanceof StringBuilder) {
+            ((StringBuilder) appendable).append(cbuf, off, len);
+        } else {
+            appendable.append(CharBuffer.wrap(cbuf, off, len));
+        }
+    }
+
+    @Override
+    public void write(final int c) throws IOException {
+        output().append((char) c);
+    }
+
+    @Override
+    public void write(final String str, final int off, final int len) throws IOException {
+        output().append(str, off, off + len);
+    }
+}
@@ -98,6 +98,14 @@ public class UnicodeEscaper extends CodePointTranslator {
         this.between = between;
     }
 
+    /**
+     * A character that is not a surrogate is handled on its own, unless a subclass may have changed the translation.
+     */
+    @Override
+    boolean isContextFree(final char ch) {
+        return (getClass() == UnicodeEscaper.class || getClass() == JavaUnicodeEscaper.class) && !Character.isSurrogate(ch);
+    }
+
     /**
      * Converts the given code point to a hexadecimal string of the form {@code "\\uXXXX"}.
      *
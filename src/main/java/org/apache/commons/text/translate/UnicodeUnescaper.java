@@ -35,6 +35,14 @@ public class UnicodeUnescaper extends CharSequenceTranslator {
         // empty
     }
 
+    /**
+     * A character other than a backslash is never translated, unless a subclass may have changed the translation.
+     */
+    @Override
+    boolean isContextFree(final char ch) {
+        return getClass() == UnicodeUnescaper.class && ch != '\\';
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -33,6 +33,14 @@ public class UnicodeUnpairedSurrogateRemover extends CodePointTranslator {
         // empty
     }
 
+    /**
+     * A character that is not a surrogate is handled on its own, unless a subclass may have changed the translation.
+     */
+    @Override
+    boolean isContextFree(final char ch) {
+        return getClass() == UnicodeUnpairedSurrogateRemover.class && !Character.isSurrogate(ch);
+    }
+
     /**
      * Implements translate to throw out unpaired surrogates.
      * {@inheritDoc}
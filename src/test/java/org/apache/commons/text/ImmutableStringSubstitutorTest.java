@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.text.lookup.StringLookupFactory;
+import org.apache.commons.text.matcher.StringMatcherFactory;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link ImmutableStringSubstitutor}.
+ */
+public class ImmutableStringSubstitutorTest extends StringSubstitutorTest {
+
+    @Override
+    protected String replace(final StringSubstitutor stringSubstitutor, final String template) throws IOException {
+        return stringSubstitutor.toImmutable().replace(template);
+    }
+
+    @Test
+    public void testConcurrentReplace() throws Exception {
+        final ImmutableStringSubstitutor sub = new StringSubstitutor(StringLookupFactory.INSTANCE.mapStringLookup(values))
+            .setEnableSubstitutionInVariables(true).toImmutable();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                futures.add(executor.submit(() -> sub.replace("The ${animal} jumps over the ${${a2b}bb}.")));
+            }
+            for (final Future<String> future : futures) {
+                assertEquals("The quick brown fox jumps over the 222.", future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCopiesSettings() {
+        final StringSubstitutor source = new StringSubstitutor();
+        source.setDisableSubstitutionInValues(true);
+        source.setEnableSubstitutionInVariables(true);
+        source.setEnableUndefinedVariableException(true);
+        source.setEscapeChar('e');
+        final StringSubstitutorListener listener = new StringSubstitutorListener() {
+            // empty
+        };
+        source.setListener(listener);
+        source.setMemoizeVariables(true);
+        source.setPreserveEscapes(true);
+        source.setValueDelimiter('d');
+        source.setVariablePrefix('p');
+        source.setVariableResolver(StringLookupFactory.INSTANCE.nullStringLookup());
+        source.setVariableSuffix('s');
+        //
+        final ImmutableStringSubstitutor target = source.toImmutable();
+        source.setEscapeChar('x');
+        source.setVariableResolver(null);
+        //
+        assertTrue(target.isDisableSubstitutionInValues());
+        assertTrue(target.isEnableSubstitutionInVariables());
+        assertTrue(target.isEnableUndefinedVariableException());
+        assertTrue(target.isMemoizeVariables());
+        assertTrue(target.isPreserveEscapes());
+        assertEquals('e', target.getEscapeChar());
+        assertSame(listener, target.getListener());
+        assertSame(StringLookupFactory.INSTANCE.nullStringLookup(), target.getStringLookup());
+        assertTrue(target.getValueDelimiterMatcher().toString().endsWith("['d']"), target.getValueDelimiterMatcher().toString());
+        assertTrue(target.getVariablePrefixMatcher().toString().endsWith("['p']"), target.getVariablePrefixMatcher().toString());
+        assertTrue(target.getVariableSuffixMatcher().toString().endsWith("['s']"), target.getVariableSuffixMatcher().toString());
+        assertTrue(target.toString().contains("escapeChar=e"), target.toString());
+    }
+
+    @Test
+    public void testSettersUnsupported() {
+        final ImmutableStringSubstitutor sub = new ImmutableStringSubstitutor(new StringSubstitutor(values));
+        assertThrows(UnsupportedOperationException.class, () -> sub.setDisableSubstitutionInValues(true));
+        assertThrows(UnsupportedOperationException.class, () -> sub.setEnableSubstitutionInVariables(true));
+        assertThrows(UnsupportedOperationException.class, () -> sub.setEnableUndefinedVariableException(true));
+        assertThrows(UnsupportedOperationException.class, () -> sub.setEscapeChar('e'));
+        assertThrows(UnsupportedOperationException.class, () -> sub.setListener(null));
+        assertThrows(UnsupportedOperationException.class, () -> sub.setMemoizeVariables(true));
+        assertThrows(UnsupportedOperationException.class, () -> sub.setPreserveEscapes(true));
+        assertThrows(UnsupportedOperationException.class, () -> sub.setValueDelimiter('d'));
+        assertThrows(UnsupportedOperationException.class, () -> sub.setValueDelimiter("d"));
+        assertThrows(UnsupportedOperationException.class, () -> sub.setValueDelimiter(null));
+        assertThrows(UnsupportedOperationException.class, () -> sub.setValueDelimiterMatcher(null));
+        assertThrows(UnsupportedOperationException.class, () -> sub.setVariablePrefix('p'));
+        assertThrows(UnsupportedOperationException.class, () -> sub.setVariablePrefix("p"));
+        assertThrows(UnsupportedOperationException.class,
+            () -> sub.setVariablePrefixMatcher(StringMatcherFactory.INSTANCE.charMatcher('p')));
+        assertThrows(UnsupportedOperationException.class, () -> sub.setVariableResolver(null));
+        assertThrows(UnsupportedOperationException.class, () -> sub.setVariableSuffix('s'));
+        assertThrows(UnsupportedOperationException.class, () -> sub.setVariableSuffix("s"));
+        assertThrows(UnsupportedOperationException.class,
+            () -> sub.setVariableSuffixMatcher(StringMatcherFactory.INSTANCE.charMatcher('s')));
+        // still usable
+        assertFalse(sub.isEnableUndefinedVariableException());
+        assertNull(sub.replace((String) null));
+        assertEquals("quick brown fox", sub.replace("${animal}"));
+    }
+
+    @Test
+    public void testToImmutable() {
+        final ImmutableStringSubstitutor sub = new StringSubstitutor().toImmutable();
+        assertSame(sub, sub.toImmutable());
+    }
+}
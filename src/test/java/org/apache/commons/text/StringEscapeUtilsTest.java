@@ -22,6 +22,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -303,6 +304,21 @@ public class StringEscapeUtilsTest {
         assertEscapeJava("\\uABCD\\u1234\\u012C", "\uABCD\u1234\u012C");
     }
 
+    @Test
+    public void testEscapeUnchangedReturnsInput() {
+        final String input = "Plain text, 42 items";
+        assertSame(input, StringEscapeUtils.escapeJava(input));
+        assertSame(input, StringEscapeUtils.escapeJson(input));
+        assertSame(input, StringEscapeUtils.escapeHtml4(input));
+        assertSame(input, StringEscapeUtils.escapeXml10(input));
+        assertSame(input, StringEscapeUtils.unescapeJava(input));
+        assertSame(input, StringEscapeUtils.unescapeHtml4(input));
+        assertSame(input, StringEscapeUtils.unescapeXml(input));
+        assertSame("", StringEscapeUtils.escapeJava(""));
+        assertEquals("Plain text, 42 items &amp; more", StringEscapeUtils.escapeHtml4("Plain text, 42 items & more"));
+        assertEquals("Plain \\\"text\\\"", StringEscapeUtils.escapeJava("Plain \"text\""));
+    }
+
     /**
      * Tests https://issues.apache.org/jira/browse/LANG-421
      */
@@ -421,6 +437,32 @@ public class StringEscapeUtilsTest {
         assertEquals("test & <", StringEscapeUtils.unescapeXml("test & &lt;"));
     }
 
+    @Test
+    public void testTranslateTo() throws IOException {
+        final StringBuilder sb = new StringBuilder("prefix:");
+        assertSame(sb, StringEscapeUtils.ESCAPE_HTML4.translateTo("a < b & \ud83d\ude00 c", sb));
+        assertEquals("prefix:a &lt; b &amp; \ud83d\ude00 c", sb.toString());
+        final TextStringBuilder tsb = new TextStringBuilder();
+        StringEscapeUtils.ESCAPE_JAVA.translateTo("tab\there \"quoted\"", tsb);
+        assertEquals("tab\\there \\\"quoted\\\"", tsb.toString());
+        assertEquals("", StringEscapeUtils.ESCAPE_JAVA.translateTo(null, new StringBuilder()).toString());
+        assertEquals("&lt;&#128;\u0100", StringEscapeUtils.ESCAPE_XML10.translateTo("<\u0080\u0100\ud800", new StringBuilder()).toString());
+        assertThrows(NullPointerException.class, () -> StringEscapeUtils.ESCAPE_JAVA.translateTo("", null));
+    }
+
+    @Test
+    public void testTranslateToRange() throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        assertEquals(6, StringEscapeUtils.UNESCAPE_XML.translateTo("xa&lt;bc", 1, 3, sb));
+        assertEquals("a<", sb.toString());
+        assertEquals(8, StringEscapeUtils.UNESCAPE_XML.translateTo("xa&lt;bc", 6, 8, sb));
+        assertEquals("a<bc", sb.toString());
+        assertEquals(2, StringEscapeUtils.UNESCAPE_XML.translateTo("xa&lt;bc", 2, 2, sb));
+        assertThrows(IndexOutOfBoundsException.class, () -> StringEscapeUtils.UNESCAPE_XML.translateTo("abc", 2, 1, sb));
+        assertThrows(IndexOutOfBoundsException.class, () -> StringEscapeUtils.UNESCAPE_XML.translateTo("abc", -1, 1, sb));
+        assertThrows(IndexOutOfBoundsException.class, () -> StringEscapeUtils.UNESCAPE_XML.translateTo("abc", 0, 4, sb));
+    }
+
     @Test
     public void testUnescapeCsvString() {
         assertEquals("foo.bar", StringEscapeUtils.unescapeCsv("foo.bar"));
@@ -0,0 +1,337 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.text.lookup.AsyncStringLookup;
+import org.apache.commons.text.lookup.StringLookup;
+import org.apache.commons.text.lookup.StringLookupFactory;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link StringSubstitutorTemplate}.
+ */
+public class StringSubstitutorTemplateTest extends StringSubstitutorTest {
+
+    @Override
+    protected void doTestReplace(final StringSubstitutor sub, final String expectedResult, final String replaceTemplate,
+        final boolean substring) throws IOException {
+        super.doTestReplace(sub, expectedResult, replaceTemplate, substring);
+        final StringSubstitutorTemplate template = sub.compile(replaceTemplate);
+        // render more than once
+        assertEquals(expectedResult, template.render());
+        assertEquals(expectedResult, template.render(sub.getStringLookup()));
+        final StringWriter writer = new StringWriter();
+        template.render(writer);
+        assertEquals(expectedResult, writer.toString());
+        final StringBuilder builder = new StringBuilder();
+        template.render(sub.getStringLookup(), builder);
+        assertEquals(expectedResult, builder.toString());
+        final AsyncStringLookup asyncLookup = sub.getStringLookup() == null ? null
+            : StringLookupFactory.INSTANCE.asyncStringLookup(sub.getStringLookup(), Runnable::run);
+        assertEquals(expectedResult, template.renderAsync(asyncLookup).join());
+    }
+
+    @Override
+    protected String replace(final StringSubstitutor stringSubstitutor, final String template) throws IOException {
+        return template == null ? null : stringSubstitutor.compile(template).render();
+    }
+
+    @Test
+    public void testCompileIgnoresLaterChanges() {
+        final StringSubstitutor sub = new StringSubstitutor(values);
+        final StringSubstitutorTemplate template = sub.compile("${animal} and <target>");
+        sub.setVariablePrefix("<").setVariableSuffix(">");
+        assertEquals("quick brown fox and <target>", template.render());
+        assertEquals("${animal} and lazy dog", sub.replace("${animal} and <target>"));
+    }
+
+    @Test
+    public void testCompileNull() {
+        assertThrows(NullPointerException.class, () -> new StringSubstitutor().compile(null));
+    }
+
+    @Test
+    public void testCyclicValues() {
+        values.put("x", "${y}");
+        values.put("y", "${x}");
+        final StringSubstitutorTemplate template = new StringSubstitutor(values).compile("a ${x} b");
+        final IllegalStateException e = assertThrows(IllegalStateException.class, template::render);
+        assertEquals("Infinite loop in property interpolation of a ${x} b: x->y", e.getMessage());
+    }
+
+    @Test
+    public void testGetTemplate() {
+        final StringSubstitutorTemplate template = new StringSubstitutor().compile("$${a} ${b}");
+        assertEquals("$${a} ${b}", template.getTemplate());
+        assertEquals("StringSubstitutorTemplate [template=$${a} ${b}, variables=1]", template.toString());
+    }
+
+    @Test
+    public void testLiteralOnlyReturnsSameString() {
+        final String text = "no variables here";
+        assertSame(text, new StringSubstitutor(values).compile(text).render());
+    }
+
+    @Test
+    public void testRenderAgainstManyLookups() {
+        final StringSubstitutorTemplate template = new StringSubstitutor().compile("Hi ${name:-stranger}, ${greeting}!");
+        for (int i = 0; i < 10; i++) {
+            final Map<String, String> map = new HashMap<>();
+            map.put("name", "user" + i);
+            map.put("greeting", "welcome");
+            assertEquals("Hi user" + i + ", welcome!", template.render(StringLookupFactory.INSTANCE.mapStringLookup(map)));
+        }
+        assertEquals("Hi stranger, ${greeting}!", template.render((StringLookup) null));
+    }
+
+    private static List<StringLookup> rows(final int count) {
+        final List<StringLookup> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final Map<String, Object> row = new HashMap<>();
+            row.put("id", i);
+            row.put("name", "name" + i);
+            rows.add(StringLookupFactory.INSTANCE.mapStringLookup(row));
+        }
+        return rows;
+    }
+
+    private static void assertRows(final int count, final List<String> results) {
+        assertEquals(count, results.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals("row " + i + " is name" + i + ".", results.get(i));
+        }
+    }
+
+    @Test
+    public void testRenderAllIterable() {
+        final StringSubstitutorTemplate template = new StringSubstitutor().compile("row ${id} is ${name}.");
+        assertRows(100, template.renderAll(rows(100)));
+        assertRows(100, template.renderAll(new LinkedList<>(rows(100))));
+        assertTrue(template.renderAll(Collections.emptyList()).isEmpty());
+        assertEquals(Arrays.asList("row ${id} is ${name}."), template.renderAll(Collections.singletonList(null)));
+        assertThrows(NullPointerException.class, () -> template.renderAll((Iterable<StringLookup>) null));
+    }
+
+    @Test
+    public void testRenderAllLiteral() {
+        final StringSubstitutorTemplate template = new StringSubstitutor().compile("no variables");
+        assertEquals(Arrays.asList("no variables", "no variables"), template.renderAll(rows(2)));
+    }
+
+    @Test
+    public void testRenderAllPool() {
+        final StringSubstitutorTemplate template = new StringSubstitutor().compile("row ${id} is ${name}.");
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertRows(10_000, template.renderAll(rows(10_000), pool));
+            assertRows(3, template.renderAll(new LinkedList<>(rows(3)), pool));
+            assertTrue(template.renderAll(Collections.emptyList(), pool).isEmpty());
+            assertThrows(NullPointerException.class, () -> template.renderAll(rows(1), null));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testRenderAllPoolFailure() {
+        final StringSubstitutorTemplate template = new StringSubstitutor().setEnableUndefinedVariableException(true)
+            .compile("row ${id} is ${name}.");
+        final List<StringLookup> rows = rows(1_000);
+        rows.set(500, StringLookupFactory.INSTANCE.nullStringLookup());
+        assertThrows(IllegalArgumentException.class, () -> template.renderAll(rows, ForkJoinPool.commonPool()));
+    }
+
+    @Test
+    public void testRenderAllStream() {
+        final StringSubstitutorTemplate template = new StringSubstitutor().compile("row ${id} is ${name}.");
+        assertRows(1_000, template.renderAll(rows(1_000).stream()));
+        assertRows(10_000, template.renderAll(rows(10_000).parallelStream()));
+        assertRows(10_000, template.renderAll(IntStream.range(0, 10_000).parallel().mapToObj(i -> {
+            final Map<String, Object> row = new HashMap<>();
+            row.put("id", i);
+            row.put("name", "name" + i);
+            return row;
+        }).map(StringLookupFactory.INSTANCE::mapStringLookup)));
+    }
+
+    @Test
+    public void testRenderAsync() {
+        values.put("key", "animal");
+        values.put("value", "${target}");
+        final CountDownLatch latch = new CountDownLatch(3);
+        final StringLookup lookup = key -> {
+            latch.countDown();
+            try {
+                // each lookup only completes once all three lookups have started
+                if (!latch.await(10, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("lookups not concurrent");
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            return values.get(key);
+        };
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            final StringSubstitutorTemplate template = new StringSubstitutor().setEnableSubstitutionInVariables(true)
+                .compile("${animal}, ${${key}}, ${animal} and ${value}");
+            assertEquals("quick brown fox, quick brown fox, quick brown fox and lazy dog",
+                template.renderAsync(StringLookupFactory.INSTANCE.asyncStringLookup(lookup, executor)).join());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRenderAsyncNestedValueSingleThreadExecutor() throws Exception {
+        final Map<String, String> map = new HashMap<>();
+        map.put("a", "${b}");
+        map.put("b", "x");
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final StringSubstitutorTemplate template = new StringSubstitutor().compile("v=${a}");
+            // b is only known during the render, which runs on the single executor thread
+            assertEquals("v=x", template.renderAsync(StringLookupFactory.INSTANCE.asyncStringLookup(map::get, executor))
+                .get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRenderAsyncFailure() {
+        final StringSubstitutorTemplate template = new StringSubstitutor().compile("${animal} ${target}");
+        final CompletionException e = assertThrows(CompletionException.class,
+            () -> template.renderAsync(StringLookupFactory.INSTANCE.asyncStringLookup(key -> {
+                throw new UnsupportedOperationException(key);
+            }, ForkJoinPool.commonPool())).join());
+        assertTrue(e.getCause() instanceof UnsupportedOperationException, e::toString);
+        assertEquals("animal", e.getCause().getMessage());
+        final StringSubstitutorTemplate failing = new StringSubstitutor().setEnableUndefinedVariableException(true)
+            .compile("${animal} ${missing}");
+        final AsyncStringLookup asyncLookup = StringLookupFactory.INSTANCE.asyncStringLookup(values::get, Runnable::run);
+        assertThrows(IllegalArgumentException.class, () -> failing.render(asyncLookup));
+        assertTrue(assertThrows(CompletionException.class, () -> failing.renderAsync(asyncLookup).join())
+            .getCause() instanceof IllegalArgumentException);
+    }
+
+    @Test
+    public void testRenderAppendableNull() {
+        final StringSubstitutorTemplate template = new StringSubstitutor().compile("${a}");
+        assertThrows(NullPointerException.class, () -> template.render((Appendable) null));
+        assertThrows(NullPointerException.class, () -> new StringSubstitutor().replaceTo("${a}", null));
+    }
+
+    @Test
+    public void testRenderStreamsSegments() throws IOException {
+        values.put("big", StringUtils.repeat('x', 10_000));
+        final StringSubstitutorTemplate template = new StringSubstitutor(values).compile("[${big}] ${undefined} $${escaped}");
+        final StringWriter writer = new StringWriter();
+        template.render(writer);
+        assertEquals("[" + values.get("big") + "] ${undefined} ${escaped}", writer.toString());
+        // output written before an undefined variable stays written
+        final StringWriter failing = new StringWriter();
+        final StringSubstitutorTemplate strict = new StringSubstitutor(values).setEnableUndefinedVariableException(true)
+            .compile("${animal} ${undefined}");
+        assertThrows(IllegalArgumentException.class, () -> strict.render(failing));
+        assertEquals("quick brown fox ", failing.toString());
+    }
+
+    @Test
+    public void testRenderListener() {
+        final List<String> events = new ArrayList<>();
+        final StringSubstitutorListener listener = new StringSubstitutorListener() {
+            @Override
+            public void onDefaultValue(final String variableName) {
+                events.add("default " + variableName);
+            }
+
+            @Override
+            public void onSubstitution(final long nanos) {
+                events.add("substitution");
+            }
+
+            @Override
+            public void onUndefinedVariable(final String variableName) {
+                events.add("undefined " + variableName);
+            }
+
+            @Override
+            public void onVariableResolved(final String variableName, final long nanos) {
+                events.add("resolved " + variableName);
+            }
+        };
+        values.put("recursive", "${animal}");
+        final StringSubstitutor sub = new StringSubstitutor(values).setListener(listener);
+        assertEquals("quick brown fox ${missing} x", sub.compile("${recursive} ${missing} ${other:-x}").render());
+        assertEquals(Arrays.asList("resolved recursive", "resolved animal", "undefined missing", "default other",
+            "substitution"), events);
+        events.clear();
+        assertEquals(Arrays.asList("text", "text"), sub.compile("text").renderAll(Arrays.asList((StringLookup) null, null)));
+        assertEquals(Arrays.asList("substitution", "substitution"), events);
+    }
+
+    @Test
+    public void testRenderMemoizeVariables() {
+        final Map<String, Integer> counts = new HashMap<>();
+        final StringLookup lookup = key -> {
+            counts.merge(key, 1, Integer::sum);
+            return values.get(key);
+        };
+        final StringSubstitutorTemplate template = new StringSubstitutor(lookup).setMemoizeVariables(true)
+            .compile("${animal} ${animal} ${target}");
+        assertEquals("quick brown fox quick brown fox lazy dog", template.render());
+        assertEquals(1, counts.get("animal"));
+        assertEquals(Arrays.asList("quick brown fox quick brown fox lazy dog", "quick brown fox quick brown fox lazy dog"),
+            template.renderAll(Arrays.asList(lookup, lookup)));
+        assertEquals(3, counts.get("animal"));
+    }
+
+    @Test
+    public void testRenderNestedNames() {
+        values.put("key", "animal");
+        final StringSubstitutor sub = new StringSubstitutor(values).setEnableSubstitutionInVariables(true);
+        final StringSubstitutorTemplate template = sub.compile("${${key}} ${${missing}:-${target}}");
+        assertEquals("quick brown fox lazy dog", template.render());
+        values.put("key", "target");
+        assertEquals("lazy dog lazy dog", template.render());
+    }
+}
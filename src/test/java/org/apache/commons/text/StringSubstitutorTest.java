@@ -25,7 +25,11 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
@@ -85,11 +89,17 @@ public class StringSubstitutorTest {
             assertFalse(substitutor.replaceIn((StringBuffer) null, 0, 100));
             assertFalse(substitutor.replaceIn((TextStringBuilder) null));
             assertFalse(substitutor.replaceIn((TextStringBuilder) null, 0, 100));
+            final StringWriter writer = new StringWriter();
+            substitutor.replaceTo(null, writer);
+            assertEquals("", writer.toString());
         } else {
             assertEquals(replaceTemplate, replace(substitutor, replaceTemplate));
             final TextStringBuilder builder = new TextStringBuilder(replaceTemplate);
             assertFalse(substitutor.replaceIn(builder));
             assertEquals(replaceTemplate, builder.toString());
+            final StringWriter writer = new StringWriter();
+            substitutor.replaceTo(replaceTemplate, writer);
+            assertEquals(replaceTemplate, writer.toString());
         }
     }
 
@@ -136,6 +146,14 @@ public class StringSubstitutorTest {
         final MutableObject<String> obj = new MutableObject<>(replaceTemplate); // toString returns template
         assertEquals(expectedResult, sub.replace(obj));
 
+        // replace to Writer and StringBuilder
+        final StringWriter writer = new StringWriter();
+        sub.replaceTo(replaceTemplate, writer);
+        assertEquals(expectedResult, writer.toString());
+        final StringBuilder appendable = new StringBuilder("<");
+        sub.replaceTo(new StringBuilder(replaceTemplate), appendable);
+        assertEquals("<" + expectedResult, appendable.toString());
+
         // replace in StringBuffer
         buf = new StringBuffer(replaceTemplate);
         assertTrue(sub.replaceIn(buf), replaceTemplate);
@@ -211,6 +229,7 @@ public class StringSubstitutorTest {
         source.setEnableSubstitutionInVariables(true);
         source.setEnableUndefinedVariableException(true);
         source.setEscapeChar('e');
+        source.setMemoizeVariables(true);
         source.setValueDelimiter('d');
         source.setVariablePrefix('p');
         source.setVariableResolver(StringLookupFactory.INSTANCE.nullStringLookup());
@@ -221,6 +240,7 @@ public class StringSubstitutorTest {
         assertTrue(target.isDisableSubstitutionInValues());
         assertTrue(target.isEnableSubstitutionInVariables());
         assertTrue(target.isEnableUndefinedVariableException());
+        assertTrue(target.isMemoizeVariables());
         assertEquals('e', target.getEscapeChar());
         assertTrue(target.getValueDelimiterMatcher().toString().endsWith("['d']"), target.getValueDelimiterMatcher().toString());
         assertTrue(target.getVariablePrefixMatcher().toString().endsWith("['p']"), target.getValueDelimiterMatcher().toString());
@@ -494,6 +514,161 @@ public class StringSubstitutorTest {
                 replace(sub, "The ${testok.${statement.${recursive}}} is a sample for missing ${word}."));
     }
 
+    /**
+     * Tests a long chain of nested variable references and the message of a cyclic one.
+     */
+    @Test
+    public void testReplaceDeepNesting() {
+        final int depth = 500;
+        for (int i = 0; i < depth; i++) {
+            values.put("v" + i, "${v" + (i + 1) + "}");
+        }
+        values.put("v" + depth, "end");
+        final StringSubstitutor sub = new StringSubstitutor(values);
+        assertEquals("[end]", sub.replace("[${v0}]"));
+        values.put("v" + depth, "${v0}");
+        final IllegalStateException e = assertThrows(IllegalStateException.class, () -> sub.replace("[${v0}]"));
+        assertTrue(e.getMessage().startsWith("Infinite loop in property interpolation of [${v0}]: v0->v1->v2->"),
+            e.getMessage());
+        assertTrue(e.getMessage().endsWith("->v" + depth), e.getMessage());
+        values.put("x", "${y}");
+        values.put("y", "${x}");
+        assertEquals("Infinite loop in property interpolation of a ${x} b: x->y",
+            assertThrows(IllegalStateException.class, () -> sub.replace("a ${x} b")).getMessage());
+        // the message quotes the source text, not the text as rewritten by the substitutions so far
+        values.put("x", "[${y}]");
+        values.put("y", "<${x}>");
+        assertEquals("Infinite loop in property interpolation of a ${x} b: x->y",
+            assertThrows(IllegalStateException.class, () -> sub.replace("a ${x} b")).getMessage());
+        assertEquals("Infinite loop in property interpolation of a ${x} b: x->y",
+            assertThrows(IllegalStateException.class, () -> sub.compile("a ${x} b").render()).getMessage());
+        assertEquals("Infinite loop in property interpolation of ${x} b: x->y",
+            assertThrows(IllegalStateException.class, () -> sub.replace("(a ${x} b)", 3, 6)).getMessage());
+        assertEquals("Infinite loop in property interpolation of ${x} b: x->y",
+            assertThrows(IllegalStateException.class, () -> sub.replace("(a ${x} b)".toCharArray(), 3, 6)).getMessage());
+        assertEquals("Infinite loop in property interpolation of a ${x} b: x->y",
+            assertThrows(IllegalStateException.class, () -> sub.replaceIn(new StringBuilder("a ${x} b"))).getMessage());
+        // builders substituted in place and subclasses quote a copy
+        assertEquals("Infinite loop in property interpolation of a ${x} b: x->y",
+            assertThrows(IllegalStateException.class, () -> sub.replaceIn(new TextStringBuilder("a ${x} b"))).getMessage());
+        final StringSubstitutor subclass = new StringSubstitutor(values) {
+            // anonymous subclass
+        };
+        assertEquals("Infinite loop in property interpolation of a ${x} b: x->y",
+            assertThrows(IllegalStateException.class, () -> subclass.replace("a ${x} b")).getMessage());
+    }
+
+    /**
+     * Tests that memoized variables are resolved once per substitution.
+     */
+    @Test
+    public void testReplaceMemoizeVariables() {
+        final Map<String, Integer> counts = new HashMap<>();
+        final StringLookup lookup = key -> {
+            counts.merge(key, 1, Integer::sum);
+            return values.get(key);
+        };
+        values.put("key", "animal");
+        values.put("recursive", "${animal}");
+        final StringSubstitutor sub = new StringSubstitutor(lookup).setEnableSubstitutionInVariables(true);
+        final String template = "${animal} ${${key}} ${recursive} ${missing} ${missing:-x}";
+        final String expected = "quick brown fox quick brown fox quick brown fox ${missing} x";
+        assertFalse(sub.isMemoizeVariables());
+        assertEquals(expected, sub.replace(template));
+        assertEquals(3, counts.get("animal"));
+        assertEquals(2, counts.get("missing"));
+        counts.clear();
+        sub.setMemoizeVariables(true);
+        assertEquals(expected, sub.replace(template));
+        assertEquals(1, counts.get("animal"));
+        assertEquals(1, counts.get("key"));
+        assertEquals(1, counts.get("missing"));
+        // the memo does not outlive a substitution
+        values.put("animal", "cat");
+        assertEquals("cat cat cat ${missing} x", sub.replace(template));
+        assertEquals(2, counts.get("animal"));
+    }
+
+    /**
+     * Tests that variable names go through an overridden substitute method when memoizing or listening.
+     */
+    @Test
+    public void testReplaceMemoizeVariablesSubclass() {
+        values.put("key", "animal");
+        final List<String> texts = new ArrayList<>();
+        final StringSubstitutor sub = new StringSubstitutor(values) {
+            @Override
+            protected boolean substitute(final TextStringBuilder builder, final int offset, final int length) {
+                texts.add(builder.midString(offset, length));
+                return super.substitute(builder, offset, length);
+            }
+        };
+        sub.setEnableSubstitutionInVariables(true).setMemoizeVariables(true).setListener(new StringSubstitutorListener() {
+            // no events needed
+        });
+        assertEquals("quick brown fox", sub.replace("${${key}}"));
+        assertEquals(Arrays.asList("${${key}}", "${key}", "key"), texts);
+    }
+
+    /**
+     * Tests that a cycle through a variable name is reported.
+     */
+    @Test
+    public void testReplaceCyclicVariableName() {
+        values.put("a", "${${b}}");
+        values.put("b", "${a}");
+        final StringSubstitutor sub = new StringSubstitutor(values).setEnableSubstitutionInVariables(true);
+        assertEquals("Infinite loop in property interpolation of x ${a}: a->b",
+            assertThrows(IllegalStateException.class, () -> sub.replace("x ${a}")).getMessage());
+        sub.setMemoizeVariables(true);
+        assertEquals("Infinite loop in property interpolation of x ${a}: a->b",
+            assertThrows(IllegalStateException.class, () -> sub.replace("x ${a}")).getMessage());
+    }
+
+    @Test
+    public void testListener() {
+        final List<String> events = new ArrayList<>();
+        final StringSubstitutorListener listener = new StringSubstitutorListener() {
+            @Override
+            public void onDefaultValue(final String variableName) {
+                events.add("default " + variableName);
+            }
+
+            @Override
+            public void onSubstitution(final long nanos) {
+                assertTrue(nanos >= 0);
+                events.add("substitution");
+            }
+
+            @Override
+            public void onUndefinedVariable(final String variableName) {
+                events.add("undefined " + variableName);
+            }
+
+            @Override
+            public void onVariableResolved(final String variableName, final long nanos) {
+                assertTrue(nanos >= 0);
+                events.add("resolved " + variableName);
+            }
+        };
+        values.put("key", "animal");
+        final StringSubstitutor sub = new StringSubstitutor(values).setEnableSubstitutionInVariables(true);
+        assertNull(sub.getListener());
+        sub.setListener(listener);
+        assertSame(listener, sub.getListener());
+        assertEquals("quick brown fox ${missing} x", sub.replace("${${key}} ${missing} ${other:-x}"));
+        assertEquals(Arrays.asList("resolved key", "resolved animal", "undefined missing", "default other", "substitution"),
+            events);
+        events.clear();
+        assertEquals("no variables", sub.replace("no variables"));
+        assertEquals(Arrays.asList("substitution"), events);
+        events.clear();
+        sub.setEnableUndefinedVariableException(true);
+        assertThrows(IllegalArgumentException.class, () -> sub.replace("${missing}"));
+        assertEquals(Arrays.asList("undefined missing"), events);
+        assertTrue(sub.toString().contains("listener="), sub.toString());
+    }
+
     /**
      * Tests when no incomplete prefix.
      */
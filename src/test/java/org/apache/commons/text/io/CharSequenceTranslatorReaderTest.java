@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.text.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.text.StringEscapeUtils;
+import org.apache.commons.text.translate.CharSequenceTranslator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * Tests {@link CharSequenceTranslatorReader}.
+ */
+public class CharSequenceTranslatorReaderTest {
+
+    private static final int LOOKAHEAD = 16;
+
+    private static final String TRANSLATIONS = "org.apache.commons.text.io.CharSequenceTranslatorWriterTest#translations";
+
+    @Test
+    public void testConstructorArguments() {
+        final StringReader in = new StringReader("");
+        assertThrows(NullPointerException.class, () -> new CharSequenceTranslatorReader(null, StringEscapeUtils.UNESCAPE_XML));
+        assertThrows(NullPointerException.class, () -> new CharSequenceTranslatorReader(in, null));
+        assertThrows(IllegalArgumentException.class, () -> new CharSequenceTranslatorReader(in, StringEscapeUtils.UNESCAPE_XML, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new CharSequenceTranslatorReader(in, StringEscapeUtils.UNESCAPE_XML, 1, 0));
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        try (Reader reader = new CharSequenceTranslatorReader(new StringReader(""), StringEscapeUtils.UNESCAPE_XML)) {
+            assertEquals(-1, reader.read());
+            assertEquals(-1, reader.read(new char[1], 0, 1));
+            assertEquals(0, reader.read(new char[1], 0, 0));
+        }
+    }
+
+    @Test
+    public void testLargeDocument() throws IOException {
+        final String text = StringUtils.repeat("&lt;p class=&quot;x&quot;&gt;Caf&eacute; &amp;amp; &#x1F600;&lt;/p&gt;\n", 10_000);
+        try (Reader reader = new CharSequenceTranslatorReader(new StringReader(text), StringEscapeUtils.UNESCAPE_HTML4)) {
+            assertEquals(StringEscapeUtils.unescapeHtml4(text), IOUtils.toString(reader));
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource(TRANSLATIONS)
+    public void testReadArray(final CharSequenceTranslator translator, final String input) throws IOException {
+        final String expected = translator.translate(input);
+        for (int bufferSize = 1; bufferSize <= LOOKAHEAD; bufferSize++) {
+            for (int targetSize = 1; targetSize <= expected.length() + 1; targetSize++) {
+                final StringBuilder actual = new StringBuilder();
+                final char[] target = new char[targetSize + 2];
+                try (Reader reader = new CharSequenceTranslatorReader(new StringReader(input), translator, bufferSize, LOOKAHEAD)) {
+                    int count;
+                    while ((count = reader.read(target, 1, targetSize)) != -1) {
+                        assertTrue(count > 0);
+                        actual.append(target, 1, count);
+                    }
+                }
+                assertEquals(expected, actual.toString(), "bufferSize " + bufferSize + ", targetSize " + targetSize);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource(TRANSLATIONS)
+    public void testReadChars(final CharSequenceTranslator translator, final String input) throws IOException {
+        final String expected = translator.translate(input);
+        for (int bufferSize = 1; bufferSize <= LOOKAHEAD; bufferSize++) {
+            final StringBuilder actual = new StringBuilder();
+            try (Reader reader = new CharSequenceTranslatorReader(new StringReader(input), translator, bufferSize, LOOKAHEAD)) {
+                assertFalse(reader.ready());
+                int c;
+                while ((c = reader.read()) != -1) {
+                    actual.append((char) c);
+                }
+            }
+            assertEquals(expected, actual.toString());
+        }
+    }
+
+    @Test
+    public void testSkip() throws IOException {
+        try (Reader reader = new CharSequenceTranslatorReader(new StringReader("&lt;a&gt;&lt;b&gt;"), StringEscapeUtils.UNESCAPE_XML, 2, 4)) {
+            assertEquals(3, reader.skip(3));
+            assertEquals("<b>", IOUtils.toString(reader));
+        }
+    }
+}
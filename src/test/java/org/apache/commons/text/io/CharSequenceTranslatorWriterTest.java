@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.text.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.text.StringEscapeUtils;
+import org.apache.commons.text.translate.CharSequenceTranslator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * Tests {@link CharSequenceTranslatorWriter}.
+ */
+public class CharSequenceTranslatorWriterTest {
+
+    private static final int LOOKAHEAD = 16;
+
+    static Stream<Arguments> translations() {
+        final String plain = "a < b & \"c\" 'd' 😀 café \u0080Ā tab\there\nend";
+        final String html = "&lt;p&gt;Caf&eacute; &amp;amp; &#233;&#x1F600; &thetasym; &unknown; & &#65 end";
+        final String java = "tab\\t \\u00e9 \\uuu0041 \\101\\7 \\\\ \\\" \\ud83d\\ude00 end\\";
+        return Stream.of(
+            Arguments.of(StringEscapeUtils.ESCAPE_HTML4, plain),
+            Arguments.of(StringEscapeUtils.ESCAPE_JAVA, plain),
+            Arguments.of(StringEscapeUtils.ESCAPE_XML10, plain),
+            Arguments.of(StringEscapeUtils.UNESCAPE_HTML4, html),
+            Arguments.of(StringEscapeUtils.UNESCAPE_XML, html),
+            Arguments.of(StringEscapeUtils.UNESCAPE_JAVA, java));
+    }
+
+    @Test
+    public void testClose() throws IOException {
+        final StringWriter out = new StringWriter();
+        final CharSequenceTranslatorWriter writer = new CharSequenceTranslatorWriter(out, StringEscapeUtils.ESCAPE_XML10);
+        writer.write("<a>");
+        writer.close();
+        writer.close();
+        assertEquals("&lt;a&gt;", out.toString());
+        assertThrows(IOException.class, () -> writer.write('a'));
+        assertThrows(IOException.class, writer::flush);
+    }
+
+    @Test
+    public void testConstructorArguments() {
+        final StringWriter out = new StringWriter();
+        assertThrows(NullPointerException.class, () -> new CharSequenceTranslatorWriter(null, StringEscapeUtils.ESCAPE_XML10));
+        assertThrows(NullPointerException.class, () -> new CharSequenceTranslatorWriter(out, null));
+        assertThrows(IllegalArgumentException.class, () -> new CharSequenceTranslatorWriter(out, StringEscapeUtils.ESCAPE_XML10, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new CharSequenceTranslatorWriter(out, StringEscapeUtils.ESCAPE_XML10, 1, 0));
+    }
+
+    @Test
+    public void testFlushKeepsLookahead() throws IOException {
+        final StringWriter out = new StringWriter();
+        try (CharSequenceTranslatorWriter writer = new CharSequenceTranslatorWriter(out, StringEscapeUtils.UNESCAPE_HTML4, 100, 3)) {
+            writer.write("a&amp;b&am");
+            writer.flush();
+            assertEquals("a&b", out.toString());
+            writer.write("p;c");
+        }
+        assertEquals("a&b&c", out.toString());
+    }
+
+    @Test
+    public void testLargeDocument() throws IOException {
+        final String text = StringUtils.repeat("<p class=\"x\">Café &amp; crème 😀</p>\n", 10_000);
+        final StringWriter out = new StringWriter();
+        try (CharSequenceTranslatorWriter writer = new CharSequenceTranslatorWriter(out, StringEscapeUtils.ESCAPE_HTML4)) {
+            writer.write(text);
+        }
+        assertEquals(StringEscapeUtils.escapeHtml4(text), out.toString());
+    }
+
+    @ParameterizedTest
+    @MethodSource("translations")
+    public void testWriteArrayChunks(final CharSequenceTranslator translator, final String input) throws IOException {
+        final String expected = translator.translate(input);
+        final char[] chars = input.toCharArray();
+        for (int bufferSize = 1; bufferSize <= LOOKAHEAD; bufferSize++) {
+            for (int chunk = 1; chunk <= chars.length; chunk++) {
+                final StringWriter out = new StringWriter();
+                try (CharSequenceTranslatorWriter writer = new CharSequenceTranslatorWriter(out, translator, bufferSize, LOOKAHEAD)) {
+                    for (int off = 0; off < chars.length; off += chunk) {
+                        writer.write(chars, off, Math.min(chunk, chars.length - off));
+                    }
+                }
+                assertEquals(expected, out.toString(), "bufferSize " + bufferSize + ", chunk " + chunk);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("translations")
+    public void testWriteChars(final CharSequenceTranslator translator, final String input) throws IOException {
+        final String expected = translator.translate(input);
+        for (int bufferSize = 1; bufferSize <= LOOKAHEAD; bufferSize++) {
+            final StringWriter out = new StringWriter();
+            try (CharSequenceTranslatorWriter writer = new CharSequenceTranslatorWriter(out, translator, bufferSize, LOOKAHEAD)) {
+                for (int i = 0; i < input.length(); i++) {
+                    writer.write(input.charAt(i));
+                }
+            }
+            assertEquals(expected, out.toString());
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("translations")
+    public void testWriteString(final CharSequenceTranslator translator, final String input) throws IOException {
+        final String expected = translator.translate(input);
+        for (int bufferSize = 1; bufferSize <= LOOKAHEAD; bufferSize++) {
+            final StringWriter out = new StringWriter();
+            try (CharSequenceTranslatorWriter writer = new CharSequenceTranslatorWriter(out, translator, bufferSize, LOOKAHEAD)) {
+                writer.write(input, 0, 5);
+                writer.flush();
+                writer.write(input, 5, input.length() - 5);
+            }
+            assertEquals(expected, out.toString());
+        }
+    }
+}
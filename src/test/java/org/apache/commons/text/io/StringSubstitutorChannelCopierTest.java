@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.text.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.text.StringSubstitutor;
+import org.apache.commons.text.StringSubstitutorTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests {@link StringSubstitutorChannelCopier}.
+ */
+public class StringSubstitutorChannelCopierTest extends StringSubstitutorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static String copy(final StringSubstitutor substitutor, final String source, final int bufferSize)
+        throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final long count = StringSubstitutorChannelCopier.builder().setStringSubstitutor(substitutor)
+            .setCharset(StandardCharsets.UTF_8).setBufferSize(bufferSize).get()
+            .copy(Channels.newChannel(new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8))),
+                Channels.newChannel(out));
+        assertEquals(out.size(), count);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private String copyFile(final StringSubstitutor substitutor, final String source, final int bufferSize,
+        final boolean memoryMap) throws IOException {
+        final Path sourceFile = Files.write(tempDir.resolve("source.txt"), source.getBytes(StandardCharsets.UTF_8));
+        final Path targetFile = tempDir.resolve("target.txt");
+        StringSubstitutorChannelCopier.builder().setStringSubstitutor(substitutor).setCharset(StandardCharsets.UTF_8)
+            .setBufferSize(bufferSize).setMemoryMap(memoryMap).get().copy(sourceFile, targetFile);
+        return new String(Files.readAllBytes(targetFile), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected void doTestReplace(final StringSubstitutor sub, final String expectedResult, final String replaceTemplate,
+        final boolean substring) throws IOException {
+        super.doTestReplace(sub, expectedResult, replaceTemplate, substring);
+        for (int bufferSize = 2; bufferSize <= replaceTemplate.length() + 1; bufferSize++) {
+            assertEquals(expectedResult, copy(sub, replaceTemplate, bufferSize), "bufferSize " + bufferSize);
+        }
+        assertEquals(expectedResult, copyFile(sub, replaceTemplate, 1, true));
+    }
+
+    @Override
+    protected String replace(final StringSubstitutor substitutor, final String source) throws IOException {
+        return source == null ? null : copy(substitutor, source, 1);
+    }
+
+    @Test
+    public void testBufferSize() {
+        assertThrows(IllegalArgumentException.class, () -> StringSubstitutorChannelCopier.builder().setBufferSize(0));
+        assertThrows(NullPointerException.class, () -> StringSubstitutorChannelCopier.builder().get());
+    }
+
+    @Test
+    public void testCopyFile() throws IOException {
+        values.put("big", StringUtils.repeat("é😀", 1_000));
+        final StringBuilder template = new StringBuilder();
+        final StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 2_000; i++) {
+            template.append("é ${animal} $${target} ${big}\n");
+            expected.append("é quick brown fox ${target} ").append(values.get("big")).append('\n');
+        }
+        final StringSubstitutor sub = new StringSubstitutor(values);
+        for (final int bufferSize : new int[] {1, 7, 64, 8192}) {
+            assertEquals(expected.toString(), copy(sub, template.toString(), bufferSize));
+            assertEquals(expected.toString(), copyFile(sub, template.toString(), bufferSize, false));
+            assertEquals(expected.toString(), copyFile(sub, template.toString(), bufferSize, true));
+        }
+    }
+
+    @Test
+    public void testCopyFromChannelPosition() throws IOException {
+        final Path sourceFile = Files.write(tempDir.resolve("source.txt"), "skip ${animal}".getBytes(StandardCharsets.UTF_8));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (FileChannel channel = FileChannel.open(sourceFile, StandardOpenOption.READ)) {
+            channel.position(5);
+            StringSubstitutorChannelCopier.builder().setStringSubstitutor(new StringSubstitutor(values))
+                .setCharset(StandardCharsets.UTF_8).setMemoryMap(true).get().copy(channel, Channels.newChannel(out));
+            assertEquals(channel.size(), channel.position());
+        }
+        assertEquals("quick brown fox", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        final StringSubstitutor sub = new StringSubstitutor(values);
+        assertEquals("", copy(sub, "", 1));
+        assertEquals("", copyFile(sub, "", 1, false));
+        assertEquals("", copyFile(sub, "", 1, true));
+    }
+
+    @Test
+    public void testMalformedInputReplaced() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StringSubstitutorChannelCopier.builder().setStringSubstitutor(new StringSubstitutor(values))
+            .setCharset(StandardCharsets.UTF_8).setBufferSize(2).get()
+            .copy(Channels.newChannel(new ByteArrayInputStream(new byte[] {'a', (byte) 0xff, 'b'})), Channels.newChannel(out));
+        assertEquals("a�b", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testToString() {
+        final String string = StringSubstitutorChannelCopier.builder().setStringSubstitutor(new StringSubstitutor())
+            .setCharset(null).get().toString();
+        assertTrue(string.contains("charset=" + Charset.defaultCharset()), string);
+    }
+
+    @Test
+    public void testUnterminatedVariableAcrossBuffers() throws IOException {
+        final String template = "${animal} ${" + StringUtils.repeat('x', 1_000) + " ${target}";
+        final StringSubstitutor sub = new StringSubstitutor(values);
+        assertEquals(sub.replace(template), copy(sub, template, 3));
+        assertEquals(sub.replace(template), copyFile(sub, template, 3, true));
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.text.jmh;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.text.StringEscapeUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Performance analysis for the translators of {@link StringEscapeUtils}.
+ * <p>
+ * The {@code plain} input has nothing to escape, the {@code markup} input has an entity every few characters.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-server", "-Xms512M", "-Xmx512M"})
+public class CharSequenceTranslatorPerformance {
+
+    @State(Scope.Benchmark)
+    public static class InputData {
+
+        @Param({"plain", "markup"})
+        String content;
+
+        String escaped;
+
+        String unescaped;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            final String sentence = "plain".equals(content) ? "The quick brown fox jumps over the lazy dog. "
+                : "<p class=\"fox\">Café &amp; crème © 2024 – \"quoted\" text</p> ";
+            unescaped = StringUtils.repeat(sentence, 200);
+            escaped = StringEscapeUtils.escapeHtml4(unescaped);
+        }
+    }
+
+    @Benchmark
+    public String testEscapeHtml4(final InputData data) {
+        return StringEscapeUtils.escapeHtml4(data.unescaped);
+    }
+
+    @Benchmark
+    public StringBuilder testEscapeHtml4Appendable(final InputData data) throws IOException {
+        return StringEscapeUtils.ESCAPE_HTML4.translateTo(data.unescaped, new StringBuilder());
+    }
+
+    @Benchmark
+    public StringWriter testEscapeHtml4Writer(final InputData data) throws IOException {
+        final StringWriter writer = new StringWriter();
+        StringEscapeUtils.ESCAPE_HTML4.translate(data.unescaped, writer);
+        return writer;
+    }
+
+    @Benchmark
+    public String testEscapeJava(final InputData data) {
+        return StringEscapeUtils.escapeJava(data.unescaped);
+    }
+
+    @Benchmark
+    public String testEscapeXml10(final InputData data) {
+        return StringEscapeUtils.escapeXml10(data.unescaped);
+    }
+
+    @Benchmark
+    public String testUnescapeHtml4(final InputData data) {
+        return StringEscapeUtils.unescapeHtml4(data.escaped);
+    }
+}
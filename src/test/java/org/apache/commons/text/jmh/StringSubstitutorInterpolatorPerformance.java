@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.text.jmh;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.text.StringSubstitutor;
+import org.apache.commons.text.lookup.StringLookupFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Performance analysis for {@link StringSubstitutor#createInterpolator()} and the interpolator lookup with variables
+ * using several prefixes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-server", "-Xms512M", "-Xmx512M"})
+public class StringSubstitutorInterpolatorPerformance {
+
+    @State(Scope.Benchmark)
+    public static class InputData {
+
+        /** A template mixing prefixed variables with a variable resolved by the default lookup. */
+        final String source = "User ${sys:user.name} runs Java ${java:version} on ${java:os}, "
+            + "greeting ${base64Decoder:SGVsbG9Xb3JsZCE=}, query ${urlEncoder:a b&c}, app ${app}, "
+            + "home ${env:HOME:-none}, unknown ${unknown:key:-default}.";
+
+        StringSubstitutor interpolator;
+
+        StringSubstitutor interpolatorWithDefault;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            final Map<String, String> values = new HashMap<>();
+            values.put("app", "commons-text");
+            interpolator = StringSubstitutor.createInterpolator();
+            interpolatorWithDefault = new StringSubstitutor(
+                StringLookupFactory.INSTANCE.interpolatorStringLookup(values));
+        }
+    }
+
+    @Benchmark
+    public String testCreateInterpolatorAndReplace(final InputData data) {
+        return StringSubstitutor.createInterpolator().replace(data.source);
+    }
+
+    @Benchmark
+    public String testReplace(final InputData data) {
+        return data.interpolator.replace(data.source);
+    }
+
+    @Benchmark
+    public String testReplaceWithDefaultLookup(final InputData data) {
+        return data.interpolatorWithDefault.replace(data.source);
+    }
+}
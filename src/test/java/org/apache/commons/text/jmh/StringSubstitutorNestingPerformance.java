@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.text.jmh;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.text.StringSubstitutor;
+import org.apache.commons.text.StringSubstitutorTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Performance analysis for chains of nested variable references in {@link StringSubstitutor}.
+ * <p>
+ * Each value references the next variable, so resolving the first variable goes {@code depth} levels deep. The time
+ * per operation should grow linearly with the depth.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-server", "-Xms512M", "-Xmx512M", "-Xss16M"})
+public class StringSubstitutorNestingPerformance {
+
+    @State(Scope.Benchmark)
+    public static class InputData {
+
+        @Param({"10", "100", "1000"})
+        int depth;
+
+        String source;
+
+        StringSubstitutor substitutor;
+
+        StringSubstitutorTemplate template;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            final Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < depth; i++) {
+                values.put("v" + i, "${v" + (i + 1) + "}");
+            }
+            values.put("v" + depth, "end");
+            source = "The chain of " + depth + " variables ends with ${v0}.";
+            substitutor = new StringSubstitutor(values);
+            template = substitutor.compile(source);
+        }
+    }
+
+    @Benchmark
+    public String testReplace(final InputData data) {
+        return data.substitutor.replace(data.source);
+    }
+
+    @Benchmark
+    public String testTemplateRender(final InputData data) {
+        return data.template.render();
+    }
+}
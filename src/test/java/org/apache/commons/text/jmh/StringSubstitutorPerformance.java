@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.text.jmh;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.text.StringSubstitutor;
+import org.apache.commons.text.io.StringSubstitutorReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Performance analysis for {@link StringSubstitutor#replace(String)} and {@link StringSubstitutorReader}.
+ * <p>
+ * Templates are built from a repeated segment of literal text followed by a variable reference. A sparse template has
+ * about one variable per kilobyte of text, a dense template one variable every few characters.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-server", "-Xms512M", "-Xmx512M"})
+public class StringSubstitutorPerformance {
+
+    @State(Scope.Benchmark)
+    public static class InputData {
+
+        /** The approximate template length in characters. */
+        @Param({"100", "100000"})
+        int length;
+
+        /** The distance between variable references: "sparse" or "dense". */
+        @Param({"sparse", "dense"})
+        String density;
+
+        /** A template with plain variable references. */
+        String source;
+
+        /** A template with variable references that need substitution in their names. */
+        String nestedSource;
+
+        /** A template with variable references whose values reference further variables. */
+        String recursiveSource;
+
+        StringSubstitutor substitutor;
+
+        StringSubstitutor nestedSubstitutor;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            final Map<String, String> values = new HashMap<>();
+            values.put("animal", "quick brown fox");
+            values.put("target", "lazy dog");
+            values.put("key", "animal");
+            values.put("sentence", "The ${animal} jumps over the ${target}.");
+            final String literal = "sparse".equals(density) ? repeat("Lorem ipsum dolor sit amet. ", 36) : "text ";
+            source = template(literal, "${animal}");
+            nestedSource = template(literal, "${${key}}");
+            recursiveSource = template(literal, "${sentence}");
+            substitutor = new StringSubstitutor(values);
+            nestedSubstitutor = new StringSubstitutor(values).setEnableSubstitutionInVariables(true);
+        }
+
+        private String repeat(final String text, final int count) {
+            final StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < count; i++) {
+                builder.append(text);
+            }
+            return builder.toString();
+        }
+
+        private String template(final String literal, final String variable) {
+            final StringBuilder builder = new StringBuilder(length + literal.length() + variable.length());
+            do {
+                builder.append(literal).append(variable);
+            } while (builder.length() < length);
+            return builder.toString();
+        }
+    }
+
+    private static long read(final Reader reader) throws IOException {
+        final char[] buffer = new char[8192];
+        long count = 0;
+        int n;
+        while ((n = reader.read(buffer)) != -1) {
+            count += n;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public long testReader(final InputData data) throws IOException {
+        try (Reader reader = new StringSubstitutorReader(new StringReader(data.source), data.substitutor)) {
+            return read(reader);
+        }
+    }
+
+    @Benchmark
+    public String testReplace(final InputData data) {
+        return data.substitutor.replace(data.source);
+    }
+
+    @Benchmark
+    public String testReplaceNestedNames(final InputData data) {
+        return data.nestedSubstitutor.replace(data.nestedSource);
+    }
+
+    @Benchmark
+    public String testReplaceRecursive(final InputData data) {
+        return data.substitutor.replace(data.recursiveSource);
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.commons.text.lookup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.text.lookup.CachingStringLookup.Eviction;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link CachingStringLookup}.
+ */
+public class CachingStringLookupTest {
+
+    /** Counts the lookups per key and returns the key in upper case, or null for keys starting with "null". */
+    private final Map<String, Integer> counts = new ConcurrentHashMap<>();
+
+    private final StringLookup countingLookup = key -> {
+        counts.merge(key, 1, Integer::sum);
+        return key.startsWith("null") ? null : key.toUpperCase();
+    };
+
+    private int count(final String key) {
+        return counts.getOrDefault(key, 0);
+    }
+
+    @Test
+    public void testCacheNulls() {
+        final CachingStringLookup lookup = StringLookupFactory.INSTANCE.cachingStringLookup(countingLookup, 10,
+            Eviction.LRU, null, true);
+        assertNull(lookup.lookup("null1"));
+        assertNull(lookup.lookup("null1"));
+        assertEquals(1, count("null1"));
+        assertEquals(1, lookup.getHitCount());
+    }
+
+    @Test
+    public void testCoalescedLookups() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final StringLookup blockingLookup = key -> {
+            try {
+                assertTrue(release.await(10, TimeUnit.SECONDS));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return countingLookup.lookup(key);
+        };
+        final CachingStringLookup lookup = StringLookupFactory.INSTANCE.cachingStringLookup(blockingLookup, 10);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<String>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> lookup.lookup("a")));
+            }
+            // wait until one thread calls the lookup and the others wait for it
+            while (lookup.getHitCount() + lookup.getMissCount() < 8) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            for (final Future<String> future : futures) {
+                assertEquals("A", future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, count("a"));
+        assertEquals(1, lookup.getMissCount());
+        assertEquals(7, lookup.getHitCount());
+    }
+
+    @Test
+    public void testCoalescedLookupsFailure() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final StringLookup failingLookup = key -> {
+            try {
+                assertTrue(release.await(10, TimeUnit.SECONDS));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            counts.merge(key, 1, Integer::sum);
+            throw new IllegalArgumentException(key);
+        };
+        final CachingStringLookup lookup = StringLookupFactory.INSTANCE.cachingStringLookup(failingLookup, 10);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<String>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> lookup.lookup("a")));
+            }
+            while (lookup.getHitCount() + lookup.getMissCount() < 4) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            for (final Future<String> future : futures) {
+                final ExecutionException e = assertThrows(ExecutionException.class, future::get);
+                assertTrue(e.getCause() instanceof IllegalArgumentException, e::toString);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, count("a"));
+        // failures are not cached
+        assertThrows(IllegalArgumentException.class, () -> lookup.lookup("a"));
+        assertEquals(2, count("a"));
+        assertEquals(0, lookup.size());
+    }
+
+    @Test
+    public void testConcurrentLookups() throws Exception {
+        final CachingStringLookup lookup = StringLookupFactory.INSTANCE.cachingStringLookup(countingLookup, 50,
+            Eviction.LFU, Duration.ofMinutes(1), true);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        final String key = "k" + i % 100;
+                        assertEquals(key.toUpperCase(), lookup.lookup(key));
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(80_000, lookup.getHitCount() + lookup.getMissCount());
+        assertEquals(50, lookup.size());
+    }
+
+    @Test
+    public void testConstructorArguments() {
+        assertThrows(NullPointerException.class, () -> StringLookupFactory.INSTANCE.cachingStringLookup(null, 1));
+        assertThrows(IllegalArgumentException.class,
+            () -> StringLookupFactory.INSTANCE.cachingStringLookup(countingLookup, 0));
+        assertThrows(NullPointerException.class,
+            () -> StringLookupFactory.INSTANCE.cachingStringLookup(countingLookup, 1, null, null, false));
+        assertThrows(IllegalArgumentException.class, () -> StringLookupFactory.INSTANCE.cachingStringLookup(
+            countingLookup, 1, Eviction.LRU, Duration.ZERO, false));
+        assertThrows(IllegalArgumentException.class, () -> StringLookupFactory.INSTANCE.cachingStringLookup(
+            countingLookup, 1, Eviction.LRU, null, Duration.ofSeconds(-1)));
+    }
+
+    @Test
+    public void testHitsAndMisses() {
+        final CachingStringLookup lookup = StringLookupFactory.INSTANCE.cachingStringLookup(countingLookup, 10);
+        assertEquals("A", lookup.lookup("a"));
+        assertEquals("A", lookup.lookup("a"));
+        assertEquals("B", lookup.lookup("b"));
+        assertEquals(1, count("a"));
+        assertEquals(1, lookup.getHitCount());
+        assertEquals(2, lookup.getMissCount());
+        assertEquals(2, lookup.size());
+        // nulls are not cached by default
+        assertNull(lookup.lookup("null1"));
+        assertNull(lookup.lookup("null1"));
+        assertEquals(2, count("null1"));
+        // null keys are passed on
+        assertThrows(NullPointerException.class, () -> lookup.lookup(null));
+        lookup.clear();
+        assertEquals(0, lookup.size());
+        assertEquals("A", lookup.lookup("a"));
+        assertEquals(2, count("a"));
+    }
+
+    @Test
+    public void testLfuEviction() {
+        final CachingStringLookup lookup = StringLookupFactory.INSTANCE.cachingStringLookup(countingLookup, 2,
+            Eviction.LFU, null, false);
+        lookup.lookup("a");
+        lookup.lookup("a");
+        lookup.lookup("b");
+        lookup.lookup("c"); // evicts b, used once
+        assertEquals(1, lookup.getEvictionCount());
+        lookup.lookup("a");
+        assertEquals(1, count("a"));
+        lookup.lookup("b"); // evicts c, used once and older than b
+        lookup.lookup("c");
+        assertEquals(2, count("b"));
+        assertEquals(2, count("c"));
+        assertEquals(1, count("a"));
+        assertEquals(3, lookup.getEvictionCount());
+    }
+
+    @Test
+    public void testLruEviction() {
+        final CachingStringLookup lookup = StringLookupFactory.INSTANCE.cachingStringLookup(countingLookup, 2);
+        lookup.lookup("a");
+        lookup.lookup("b");
+        lookup.lookup("a");
+        lookup.lookup("c"); // evicts b
+        lookup.lookup("a");
+        lookup.lookup("b"); // evicts c
+        assertEquals(1, count("a"));
+        assertEquals(2, count("b"));
+        assertEquals(1, count("c"));
+        assertEquals(2, lookup.getEvictionCount());
+        assertEquals(2, lookup.size());
+    }
+
+    @Test
+    public void testNullTimeToLive() {
+        final AtomicLong now = new AtomicLong();
+        final CachingStringLookup lookup = new CachingStringLookup(countingLookup, 10, Eviction.LRU,
+            Duration.ofNanos(100), true, Duration.ofNanos(10), now::get);
+        lookup.lookup("a");
+        lookup.lookup("null1");
+        now.set(9);
+        lookup.lookup("a");
+        lookup.lookup("null1");
+        assertEquals(1, count("null1"));
+        now.set(10);
+        lookup.lookup("a");
+        lookup.lookup("null1");
+        assertEquals(1, count("a"));
+        assertEquals(2, count("null1"));
+        // null values do not expire
+        final CachingStringLookup forever = StringLookupFactory.INSTANCE.cachingStringLookup(countingLookup, 10,
+            Eviction.LRU, Duration.ofNanos(1), null);
+        forever.lookup("null2");
+        forever.lookup("null2");
+        assertEquals(1, count("null2"));
+    }
+
+    @Test
+    public void testTimeToLive() {
+        final AtomicLong now = new AtomicLong();
+        final CachingStringLookup lookup = new CachingStringLookup(countingLookup, 10, Eviction.LRU,
+            Duration.ofNanos(100), true, now::get);
+        lookup.lookup("a");
+        lookup.lookup("null1");
+        now.set(99);
+        lookup.lookup("a");
+        lookup.lookup("null1");
+        assertEquals(1, count("a"));
+        assertEquals(1, count("null1"));
+        now.set(100);
+        lookup.lookup("a");
+        lookup.lookup("null1");
+        assertEquals(2, count("a"));
+        assertEquals(2, count("null1"));
+        assertEquals(0, lookup.getEvictionCount());
+    }
+
+    @Test
+    public void testToString() {
+        // does not blow up and gives some kind of string.
+        assertFalse(StringLookupFactory.INSTANCE.cachingStringLookup(countingLookup, 1).toString().isEmpty());
+    }
+}
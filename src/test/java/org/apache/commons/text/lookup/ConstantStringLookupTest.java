@@ -17,6 +17,11 @@
 package org.apache.commons.text.lookup;
 
 import java.awt.event.KeyEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
@@ -31,6 +36,15 @@ import org.junit.jupiter.api.Test;
  */
 public class ConstantStringLookupTest {
 
+    /**
+     * A class whose static initializer looks up a constant.
+     */
+    public static final class Initializing {
+
+        /** The value of {@link ConstantStringLookupTest#FIELD}, looked up while this class is initialized. */
+        public static final String VALUE = ConstantStringLookup.INSTANCE.lookup(ConstantStringLookupTest.class.getName() + ".FIELD");
+    }
+
     /** A public field that can be read by the lookup. */
     public static final String FIELD = "Field that can be read";
 
@@ -66,6 +80,41 @@ public class ConstantStringLookupTest {
         testLookupConstant();
     }
 
+    /**
+     * Tests resolving constants from several threads.
+     */
+    @Test
+    public void testLookupConcurrent() throws Exception {
+        final String ref = KeyEvent.class.getName() + ".VK_ESCAPE";
+        final String expected = Integer.toString(KeyEvent.VK_ESCAPE);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        Assertions.assertEquals(expected, stringLookup.lookup(ref));
+                        Assertions.assertEquals(FIELD, stringLookup.lookup(variable("FIELD")));
+                        Assertions.assertNull(stringLookup.lookup(variable("NO_FIELD")));
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests resolving a constant of a class whose static initializer looks up another constant.
+     */
+    @Test
+    public void testLookupFromStaticInitializer() {
+        Assertions.assertEquals(FIELD, stringLookup.lookup(Initializing.class.getName() + ".VALUE"));
+    }
+
     /**
      * Tests resolving a valid constant.
      */
@@ -19,6 +19,7 @@ package org.apache.commons.text.lookup;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.time.Duration;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -42,6 +43,23 @@ public class DnsStringLookupTest {
             DnsStringLookup.INSTANCE.lookup("address|" + localHost.getHostName()));
     }
 
+    @Test
+    public void testCached() throws UnknownHostException {
+        final CachingStringLookup lookup = StringLookupFactory.INSTANCE.dnsStringLookup(10, Duration.ofMinutes(1),
+            Duration.ofMinutes(1));
+        final String expected = InetAddress.getByName("localhost").getHostAddress();
+        Assertions.assertEquals(expected, lookup.lookup("address|localhost"));
+        Assertions.assertEquals(expected, lookup.lookup("address|localhost"));
+        Assertions.assertEquals(InetAddress.getLoopbackAddress().getHostAddress(),
+            lookup.lookup(InetAddress.getLoopbackAddress().getHostAddress()));
+        Assertions.assertEquals(1, lookup.getHitCount());
+        Assertions.assertEquals(2, lookup.getMissCount());
+        Assertions.assertEquals(2, lookup.size());
+        Assertions.assertNull(lookup.lookup(null));
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> StringLookupFactory.INSTANCE.dnsStringLookup(0, null, null));
+    }
+
     @Test
     public void testCanonicalNameFromHostAddress() throws UnknownHostException {
         final InetAddress localHost = InetAddress.getLocalHost();
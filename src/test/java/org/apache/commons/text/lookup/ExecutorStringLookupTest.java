@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.commons.text.lookup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link ExecutorStringLookup}.
+ */
+public class ExecutorStringLookupTest {
+
+    @Test
+    public void testLookup() {
+        final AtomicReference<Thread> thread = new AtomicReference<>();
+        final AsyncStringLookup lookup = StringLookupFactory.INSTANCE.asyncStringLookup(key -> {
+            thread.set(Thread.currentThread());
+            return key == null ? null : key.toUpperCase();
+        }, command -> {
+            throw new IllegalStateException("not used");
+        });
+        assertEquals("A", lookup.lookup("a"));
+        assertNull(lookup.lookup(null));
+        assertSame(Thread.currentThread(), thread.get());
+    }
+
+    @Test
+    public void testLookupAsync() {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final AtomicReference<Thread> thread = new AtomicReference<>();
+            final AsyncStringLookup lookup = StringLookupFactory.INSTANCE.asyncStringLookup(key -> {
+                thread.set(Thread.currentThread());
+                return key.toUpperCase();
+            }, executor);
+            assertEquals("A", lookup.lookupAsync("a").join());
+            assertTrue(thread.get() != Thread.currentThread());
+            final CompletionException e = assertThrows(CompletionException.class, () -> lookup.lookupAsync(null).join());
+            assertTrue(e.getCause() instanceof NullPointerException, e::toString);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testLookupUnwrapsException() {
+        final AsyncStringLookup lookup = key -> StringLookupFactory.INSTANCE.asyncStringLookup(k -> {
+            throw new IllegalArgumentException(k);
+        }, Runnable::run).lookupAsync(key);
+        assertEquals("a", assertThrows(IllegalArgumentException.class, () -> lookup.lookup("a")).getMessage());
+    }
+
+    @Test
+    public void testNull() {
+        assertThrows(NullPointerException.class, () -> StringLookupFactory.INSTANCE.asyncStringLookup(null, Runnable::run));
+        assertThrows(NullPointerException.class,
+            () -> StringLookupFactory.INSTANCE.asyncStringLookup(StringLookupFactory.INSTANCE.nullStringLookup(), null));
+    }
+
+    @Test
+    public void testToString() {
+        assertTrue(StringLookupFactory.INSTANCE.asyncStringLookup(StringLookupFactory.INSTANCE.nullStringLookup(), Runnable::run)
+            .toString().contains("stringLookup="));
+    }
+}
@@ -25,11 +25,14 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.text.StringSubstitutor;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * Tests {@link FileStringLookup}.
@@ -39,6 +42,9 @@ public class FileStringLookupTest {
     private static final Path DOCUEMENT_PATH = Paths.get("src/test/resources/org/apache/commons/text/document.properties");
     private static final Path CURRENT_PATH = Paths.get(StringUtils.EMPTY);
 
+    @TempDir
+    Path tempDir;
+
     public static String readDocumentFixtureString() throws IOException {
         return new String(Files.readAllBytes(DOCUEMENT_PATH), StandardCharsets.UTF_8);
     }
@@ -55,6 +61,38 @@ public class FileStringLookupTest {
         assertThrows(IllegalArgumentException.class, () -> stringSubstitutor.replace("${file:UTF-8:../foo.txt}"));
     }
 
+    @Test
+    public void testCachedCharsets() throws IOException {
+        final Path file = Files.write(tempDir.resolve("test.txt"), "\u00e9".getBytes(StandardCharsets.UTF_8));
+        final FileStringLookup fileStringLookup = new FileStringLookup(1024);
+        assertEquals("\u00e9", fileStringLookup.lookup("UTF-8:" + file));
+        assertEquals("\u00c3\u00a9", fileStringLookup.lookup("ISO-8859-1:" + file));
+        assertEquals("\u00e9", fileStringLookup.lookup("utf8:" + file));
+        assertThrows(IllegalArgumentException.class, () -> fileStringLookup.lookup("BAD_CHARSET_NAME:" + file));
+    }
+
+    @Test
+    public void testCachedFileChanged() throws IOException {
+        final Path file = Files.write(tempDir.resolve("test.txt"), "one".getBytes(StandardCharsets.UTF_8));
+        final FileTime time = Files.getLastModifiedTime(file);
+        final FileStringLookup fileStringLookup = new FileStringLookup(1024);
+        final String key = "UTF-8:" + file;
+        assertEquals("one", fileStringLookup.lookup(key));
+        assertEquals("one", fileStringLookup.lookup(key));
+        Files.write(file, "two".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(time.toMillis() + 2000));
+        assertEquals("two", fileStringLookup.lookup(key));
+        Files.write(file, "three".getBytes(StandardCharsets.UTF_8));
+        assertEquals("three", fileStringLookup.lookup(key));
+        Files.delete(file);
+        assertThrows(IllegalArgumentException.class, () -> fileStringLookup.lookup(key));
+    }
+
+    @Test
+    public void testCachedFences() throws Exception {
+        testFence(readDocumentFixtureString(), new FileStringLookup(1024, CURRENT_PATH));
+    }
+
     @Test
     public void testDefaultInstanceBadCharsetName() {
         assertThrows(IllegalArgumentException.class,
@@ -130,6 +168,27 @@ public class FileStringLookupTest {
                 new FileStringLookup((Path[]) null).lookup("UTF-8:src/test/resources/org/apache/commons/text/document.properties"));
     }
 
+    @Test
+    public void testLargeFile() throws IOException {
+        final String content = StringUtils.repeat("\u00e9\ud83d\ude00 ", (int) FileStringLookup.STREAM_THRESHOLD / 4);
+        final byte[] bytes = (content + "\u00ff").getBytes(StandardCharsets.UTF_8);
+        // truncate the last character to check that malformed input is replaced as before
+        final Path file = Files.write(tempDir.resolve("large.txt"), Arrays.copyOf(bytes, bytes.length - 1));
+        final String expected = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        assertEquals(content + "\ufffd", expected);
+        assertEquals(expected, FileStringLookup.INSTANCE.lookup("UTF-8:" + file));
+        assertEquals(expected, new FileStringLookup(bytes.length).lookup("UTF-8:" + file));
+        assertEquals(expected, new FileStringLookup(1024).lookup("UTF-8:" + file));
+        // malformed input in the middle of a chunk
+        final byte[] middle = bytes.clone();
+        middle[bytes.length / 2] = (byte) 0xff;
+        final Path middleFile = Files.write(tempDir.resolve("middle.txt"), middle);
+        assertEquals(new String(middle, StandardCharsets.UTF_8), FileStringLookup.INSTANCE.lookup("UTF-8:" + middleFile));
+        assertEquals(new String(middle, StandardCharsets.UTF_16LE), FileStringLookup.INSTANCE.lookup("UTF-16LE:" + middleFile));
+        // the file is not left open or mapped
+        Files.delete(middleFile);
+    }
+
     @Test
     public void testInterpolatorReplace() throws IOException {
         final StringSubstitutor stringSubstitutor = StringSubstitutor.createInterpolator();
@@ -20,10 +20,15 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.jupiter.api.AfterAll;
@@ -113,6 +118,70 @@ public class InterpolatorStringLookupTest {
         check(new InterpolatorStringLookup((StringLookup) null));
     }
 
+    @Test
+    public void testListener() {
+        final Map<String, String> map = new HashMap<>();
+        map.put(TESTKEY, TESTVAL);
+        final List<String> events = new ArrayList<>();
+        final StringLookup lookup = StringLookupFactory.INSTANCE.interpolatorStringLookup(
+            Collections.singletonMap("sys", StringLookupFactory.INSTANCE.systemPropertyStringLookup()),
+            StringLookupFactory.INSTANCE.mapStringLookup(map), false, (prefix, key, found, nanos) -> {
+                assertTrue(nanos >= 0);
+                events.add(prefix + ":" + key + "=" + found);
+            });
+        assertEquals(TESTVAL, lookup.lookup("sys:" + TESTKEY));
+        assertEquals(TESTVAL, lookup.lookup(TESTKEY));
+        assertNull(lookup.lookup("sys:BadKey"));
+        assertEquals(TESTVAL, lookup.lookup("unknown:" + TESTKEY));
+        assertEquals(Arrays.asList("sys:TestKey=true", "null:TestKey=true", "sys:BadKey=false", "null:BadKey=false",
+            "null:TestKey=true"), events);
+        assertTrue(lookup.toString().contains("listener="), lookup.toString());
+    }
+
+    @Test
+    public void testMapChanges() {
+        final Map<String, StringLookup> lookupMap = new HashMap<>();
+        lookupMap.put("Map", StringLookupFactory.INSTANCE.mapStringLookup(Collections.singletonMap("k", "map")));
+        lookupMap.put("\u00e9t\u00e9", key -> "summer " + key);
+        final InterpolatorStringLookup lookup = new InterpolatorStringLookup(lookupMap, null, false);
+        assertEquals("map", lookup.lookup("map:k"));
+        assertEquals("map", lookup.lookup("MAP:k"));
+        assertEquals("summer k", lookup.lookup("\u00c9T\u00c9:k"));
+        assertNull(lookup.lookup("ma:k"));
+        assertNull(lookup.lookup("maps:k"));
+        assertNull(lookup.lookup("other:k"));
+        // the lookup map may be changed after construction
+        lookup.getStringLookupMap().put("other", key -> "other " + key);
+        assertEquals("other k", lookup.lookup("Other:k"));
+        assertEquals("other k", lookup.lookup("OTHER:k"));
+        lookup.getStringLookupMap().remove("map");
+        assertNull(lookup.lookup("map:k"));
+        lookup.getStringLookupMap().put("map", key -> "new " + key);
+        assertEquals("new k", lookup.lookup("Map:k"));
+        // many prefixes
+        for (int i = 0; i < 100; i++) {
+            final String value = "value" + i;
+            lookup.getStringLookupMap().put("p" + i, key -> value);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals("value" + i, lookup.lookup("P" + i + ":k"));
+        }
+    }
+
+    @Test
+    public void testMapChangesNotAsciiKeyOfIndexedPrefix() {
+        final Map<String, StringLookup> lookupMap = new HashMap<>();
+        lookupMap.put("k", key -> "kelvin " + key);
+        final InterpolatorStringLookup lookup = new InterpolatorStringLookup(lookupMap, null, false);
+        assertEquals(1, lookup.getPrefixIndexSize());
+        // U+212A KELVIN SIGN lower cases to "k", which is indexed already
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("kelvin x", lookup.lookup("\u212A:x"));
+        }
+        assertEquals(1, lookup.getPrefixIndexSize());
+        assertEquals("kelvin x", lookup.lookup("K:x"));
+    }
+
     @Test
     public void testNull() {
         Assertions.assertNull(InterpolatorStringLookup.INSTANCE.lookup(null));
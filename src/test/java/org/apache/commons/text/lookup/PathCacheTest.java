@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache license, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the license for the specific language governing permissions and
+ * limitations under the license.
+ */
+package org.apache.commons.text.lookup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests {@link PathCache}.
+ */
+public class PathCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private String load(final Path path) throws IOException {
+        loads.incrementAndGet();
+        return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testChangedFile() throws IOException {
+        final PathCache<String> cache = new PathCache<>(10);
+        final Path file = Files.write(tempDir.resolve("a.txt"), "one".getBytes(StandardCharsets.UTF_8));
+        final FileTime time = Files.getLastModifiedTime(file);
+        assertEquals("one", cache.get(file, this::load));
+        // same size, different time
+        Files.write(file, "two".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(time.toMillis() + 2000));
+        assertEquals("two", cache.get(file, this::load));
+        // same time, different size
+        Files.write(file, "three".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(time.toMillis() + 2000));
+        assertEquals("three", cache.get(file, this::load));
+        assertEquals(3, loads.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testMaxBytes() throws IOException {
+        final PathCache<String> cache = new PathCache<>(10, 10);
+        final Path big = Files.write(tempDir.resolve("big.txt"), new byte[11]);
+        cache.get(big, this::load);
+        cache.get(big, this::load);
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.size());
+        for (int i = 0; i < 5; i++) {
+            cache.get(Files.write(tempDir.resolve(i + ".txt"), new byte[4]), this::load);
+            assertEquals(Math.min(i + 1, 2), cache.size());
+        }
+        assertEquals(8, cache.getTotalBytes());
+        cache.clear();
+        assertEquals(0, cache.getTotalBytes());
+    }
+
+    @Test
+    public void testMaxSize() throws IOException {
+        final PathCache<String> cache = new PathCache<>(2);
+        for (int i = 0; i < 5; i++) {
+            cache.get(Files.write(tempDir.resolve(i + ".txt"), new byte[i]), this::load);
+        }
+        assertEquals(2, cache.size());
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testMissingFile() {
+        final PathCache<String> cache = new PathCache<>(10);
+        assertThrows(NoSuchFileException.class, () -> cache.get(tempDir.resolve("missing.txt"), this::load));
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    public void testVariants() throws IOException {
+        final PathCache<String> cache = new PathCache<>(10);
+        final Path file = Files.write(tempDir.resolve("a.txt"), "one".getBytes(StandardCharsets.UTF_8));
+        assertEquals("one-a", cache.get(file, "a", p -> load(p) + "-a"));
+        assertEquals("one-b", cache.get(file, "b", p -> load(p) + "-b"));
+        assertEquals("one-a", cache.get(file, "a", p -> load(p) + "-a"));
+        assertEquals(2, loads.get());
+        assertEquals(2, cache.size());
+        assertEquals(6, cache.getTotalBytes());
+    }
+
+    @Test
+    public void testUnchangedFile() throws IOException {
+        final PathCache<String> cache = new PathCache<>(10);
+        final Path file = Files.write(tempDir.resolve("a.txt"), "one".getBytes(StandardCharsets.UTF_8));
+        final String value = cache.get(file, this::load);
+        // relative and absolute paths to the same file share the entry
+        assertSame(value, cache.get(file.toAbsolutePath().getParent().resolve("./a.txt"), this::load));
+        assertEquals(1, loads.get());
+    }
+}
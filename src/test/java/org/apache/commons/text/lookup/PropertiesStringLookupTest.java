@@ -20,6 +20,9 @@ package org.apache.commons.text.lookup;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
@@ -29,6 +32,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.text.StringSubstitutor;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * Tests {@link PropertiesStringLookup}.
@@ -43,6 +47,9 @@ public class PropertiesStringLookupTest {
     private static final String KEY_ROOT = PropertiesStringLookup.toPropertyKey(DOC_ROOT, KEY);
     private static final Path[] NULL_PATH_ARRAY = null;
 
+    @TempDir
+    Path tempDir;
+
     public static void testFence(final StringSubstitutor stringSubstitutor) {
         assertEquals("Hello World!", stringSubstitutor.replace("${properties:" + KEY_RELATIVE + "}"));
         assertThrows(IllegalArgumentException.class, () -> stringSubstitutor.replace("${file:UTF-8:/foo.txt}"));
@@ -55,6 +62,20 @@ public class PropertiesStringLookupTest {
         assertThrows(IllegalArgumentException.class, () -> new PropertiesStringLookup(Paths.get("not a dir at all"), CURRENT_PATH).lookup(KEY_ROOT));
     }
 
+    @Test
+    public void testFileChanged() throws IOException {
+        final Path file = tempDir.resolve("test.properties");
+        Files.write(file, "mykey=one".getBytes(StandardCharsets.ISO_8859_1));
+        final PropertiesStringLookup lookup = new PropertiesStringLookup();
+        final String key = PropertiesStringLookup.toPropertyKey(file.toString(), KEY);
+        assertEquals("one", lookup.lookup(key));
+        assertEquals("one", lookup.lookup(key));
+        Files.write(file, "mykey=three".getBytes(StandardCharsets.ISO_8859_1));
+        assertEquals("three", lookup.lookup(key));
+        Files.delete(file);
+        assertThrows(IllegalArgumentException.class, () -> lookup.lookup(key));
+    }
+
     @Test
     public void testInterpolator() {
         final StringSubstitutor stringSubstitutor = StringSubstitutor.createInterpolator();
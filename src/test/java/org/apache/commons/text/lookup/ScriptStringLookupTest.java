@@ -19,6 +19,12 @@ package org.apache.commons.text.lookup;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import javax.script.ScriptEngineManager;
 
 import org.junit.jupiter.api.Assertions;
@@ -41,6 +47,38 @@ public class ScriptStringLookupTest {
         assertThrows(IllegalArgumentException.class, () -> ScriptStringLookup.INSTANCE.lookup(JS_NAME + ":X"));
     }
 
+    @Test
+    public void testConcurrentLookups() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        Assertions.assertEquals(String.valueOf(thread + i),
+                            ScriptStringLookup.INSTANCE.lookup(JS_NAME + ":" + thread + " + " + i));
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testEvaluationsAreIsolated() {
+        final String script = JS_NAME + ":const a = typeof b === 'undefined' ? 'first' : 'again'; var b = 1; a";
+        Assertions.assertEquals("first", ScriptStringLookup.INSTANCE.lookup(script));
+        Assertions.assertEquals("first", ScriptStringLookup.INSTANCE.lookup(script));
+        // an engine is still usable after a failed script
+        assertThrows(IllegalArgumentException.class, () -> ScriptStringLookup.INSTANCE.lookup(JS_NAME + ":X"));
+        Assertions.assertEquals("first", ScriptStringLookup.INSTANCE.lookup(script));
+    }
+
     @Test
     public void testNoScript() {
         assertThrows(IllegalArgumentException.class, () -> ScriptStringLookup.INSTANCE.lookup("ENGINE_NAME:"));
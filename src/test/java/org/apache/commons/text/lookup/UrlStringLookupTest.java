@@ -17,25 +17,107 @@
 
 package org.apache.commons.text.lookup;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
 /**
  * Tests {@link UrlStringLookup}.
  */
 public class UrlStringLookupTest {
 
+    /** The document served by {@link #server}. */
+    private volatile String body = "one";
+
+    /** The ETag of the document, may be null. */
+    private volatile String eTag = "\"1\"";
+
+    /** The Last-Modified header of the document, may be null. */
+    private volatile String lastModified;
+
+    /** The time the server waits before answering, in milliseconds. */
+    private volatile long delayMillis;
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private final AtomicInteger notModified = new AtomicInteger();
+
+    private HttpServer server;
+
+    private String key;
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try {
+            Thread.sleep(delayMillis);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        final String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        final String ifModifiedSince = exchange.getRequestHeaders().getFirst("If-Modified-Since");
+        if (ifNoneMatch != null && ifNoneMatch.equals(eTag)
+            || ifNoneMatch == null && ifModifiedSince != null && ifModifiedSince.equals(lastModified)) {
+            notModified.incrementAndGet();
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        if (eTag != null) {
+            exchange.getResponseHeaders().set("ETag", eTag);
+        }
+        if (lastModified != null) {
+            exchange.getResponseHeaders().set("Last-Modified", lastModified);
+        }
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/doc", this::handle);
+        server.start();
+        key = "UTF-8:http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getAddress().getPort()
+            + "/doc";
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
     @Test
     public void testBadCharsetName() {
         assertThrows(IllegalArgumentException.class, () -> UrlStringLookup.INSTANCE.lookup("BAD_CHARSET_NAME:BAD_URL"));
+        // the charset is checked before the document is requested
+        assertThrows(IllegalArgumentException.class, () -> UrlStringLookup.INSTANCE.lookup("BAD_CHARSET_NAME" + key.substring(key.indexOf(':'))));
+        assertEquals(0, requests.get());
     }
 
     @Test
@@ -48,6 +130,54 @@ public class UrlStringLookupTest {
         assertThrows(IllegalArgumentException.class, () -> UrlStringLookup.INSTANCE.lookup("UTF-8:BAD_URL"));
     }
 
+    @Test
+    public void testCachedConditionalGet() {
+        final UrlStringLookup lookup = new UrlStringLookup(10, 100, null, null, null, UrlStringLookup.DEFAULT_REVALIDATION_EXECUTOR, System::nanoTime);
+        assertEquals("one", lookup.lookup(key));
+        assertEquals("one", lookup.lookup(key));
+        assertEquals(2, requests.get());
+        assertEquals(1, notModified.get());
+        body = "two";
+        eTag = "\"2\"";
+        assertEquals("two", lookup.lookup(key));
+        assertEquals(1, notModified.get());
+        // without an ETag
+        eTag = null;
+        lastModified = "Wed, 21 Oct 2015 07:28:00 GMT";
+        body = "three";
+        assertEquals("three", lookup.lookup(key));
+        assertEquals("three", lookup.lookup(key));
+        assertEquals(2, notModified.get());
+        assertEquals(1, lookup.size());
+    }
+
+    @Test
+    public void testCachedTimeToLive() {
+        final AtomicLong now = new AtomicLong();
+        final UrlStringLookup lookup = new UrlStringLookup(10, 100, null, Duration.ofNanos(100), null, UrlStringLookup.DEFAULT_REVALIDATION_EXECUTOR, now::get);
+        assertEquals("one", lookup.lookup(key));
+        body = "two";
+        eTag = "\"2\"";
+        now.set(99);
+        assertEquals("one", lookup.lookup(key));
+        assertEquals(1, requests.get());
+        now.set(100);
+        assertEquals("two", lookup.lookup(key));
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    public void testFactoryArguments() {
+        final StringLookupFactory factory = StringLookupFactory.INSTANCE;
+        assertThrows(IllegalArgumentException.class, () -> factory.urlStringLookup(-1, 1, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> factory.urlStringLookup(0, 0, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> factory.urlStringLookup(0, 1, Duration.ZERO, null, null));
+        assertThrows(IllegalArgumentException.class, () -> factory.urlStringLookup(0, 1, null, Duration.ofSeconds(-1), null));
+        assertThrows(IllegalArgumentException.class, () -> factory.urlStringLookup(0, 1, null, null, Duration.ofSeconds(-1)));
+        assertThrows(NullPointerException.class, () -> factory.urlStringLookup(0, 1, null, null, null, null));
+        assertEquals("one", factory.urlStringLookup(0, 3, Duration.ofSeconds(10), null, null).lookup(key));
+    }
+
     @Test
     public void testFileScheme() throws Exception {
         final Path path = Paths.get("src/test/resources/org/apache/commons/text/document.properties");
@@ -64,6 +194,14 @@ public class UrlStringLookupTest {
         Assertions.assertNotNull(UrlStringLookup.INSTANCE.lookup("UTF-8:https://www.google.com"));
     }
 
+    @Test
+    public void testMaxBodySize() {
+        body = "0123456789";
+        assertThrows(IllegalArgumentException.class,
+            () -> new UrlStringLookup(0, 9, null, null, null, UrlStringLookup.DEFAULT_REVALIDATION_EXECUTOR, System::nanoTime).lookup(key));
+        assertEquals(body, new UrlStringLookup(0, 10, null, null, null, UrlStringLookup.DEFAULT_REVALIDATION_EXECUTOR, System::nanoTime).lookup(key));
+    }
+
     @Test
     public void testMissingUrl() {
         assertThrows(IllegalArgumentException.class, () -> UrlStringLookup.INSTANCE.lookup("UTF-8"));
@@ -74,6 +212,51 @@ public class UrlStringLookupTest {
         Assertions.assertNull(UrlStringLookup.INSTANCE.lookup(null));
     }
 
+    @Test
+    public void testStaleWhileRevalidate() throws InterruptedException {
+        final AtomicLong now = new AtomicLong();
+        final List<Runnable> tasks = new ArrayList<>();
+        final UrlStringLookup lookup = new UrlStringLookup(10, 100, null, Duration.ofNanos(100), Duration.ofNanos(100),
+            tasks::add, now::get);
+        assertEquals("one", lookup.lookup(key));
+        body = "two";
+        eTag = "\"2\"";
+        now.set(150);
+        // served stale, revalidated in the background on the given executor
+        assertEquals("one", lookup.lookup(key));
+        assertEquals("one", lookup.lookup(key));
+        assertEquals(1, tasks.size());
+        tasks.get(0).run();
+        assertEquals("two", lookup.lookup(key));
+        assertEquals(2, requests.get());
+        // past the window, the failure is reported
+        server.stop(0);
+        now.set(1000);
+        assertThrows(IllegalArgumentException.class, () -> lookup.lookup(key));
+    }
+
+    @Test
+    public void testStaleWhileRevalidateDefaultExecutor() throws InterruptedException {
+        final UrlStringLookup lookup = (UrlStringLookup) StringLookupFactory.INSTANCE.urlStringLookup(10, 100, null,
+            Duration.ofNanos(100), Duration.ofDays(1));
+        assertEquals("one", lookup.lookup(key));
+        body = "two";
+        eTag = "\"2\"";
+        // wait past the time to live, then the document is revalidated in a daemon thread
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!"two".equals(lookup.lookup(key)) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("two", lookup.lookup(key));
+    }
+
+    @Test
+    public void testTimeout() {
+        delayMillis = 2_000;
+        assertThrows(IllegalArgumentException.class,
+            () -> new UrlStringLookup(0, 100, Duration.ofMillis(100), null, null, UrlStringLookup.DEFAULT_REVALIDATION_EXECUTOR, System::nanoTime).lookup(key));
+    }
+
     @Test
     public void testToString() {
         // does not blow up and gives some kind of string.
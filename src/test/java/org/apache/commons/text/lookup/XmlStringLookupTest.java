@@ -24,14 +24,23 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.xml.XMLConstants;
 
 import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * Tests {@link XmlStringLookup}.
@@ -43,6 +52,9 @@ public class XmlStringLookupTest {
     private static final String DOC_RELATIVE = "src/test/resources/org/apache/commons/text/document.xml";
     private static final String DOC_ROOT = "/document.xml";
 
+    @TempDir
+    Path tempDir;
+
     static void assertLookup(final StringLookup xmlStringLookup) {
         assertNotNull(xmlStringLookup);
         assertInstanceOf(XmlStringLookup.class, xmlStringLookup);
@@ -55,6 +67,58 @@ public class XmlStringLookupTest {
         assertThrows(IllegalArgumentException.class, () -> XmlStringLookup.INSTANCE.lookup("docName"));
     }
 
+    @Test
+    public void testCachedConcurrentLookups() throws Exception {
+        final StringLookup lookup = StringLookupFactory.INSTANCE.xmlStringLookup(XmlStringLookup.DEFAULT_FEATURES, 10);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        assertEquals("Hello World!", lookup.lookup(DOC_RELATIVE + ":/root/path/to/node"));
+                        assertEquals("Hello World!", lookup.lookup(DOC_RELATIVE + ":string(/root/path/to/node)"));
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCachedDocumentChanged() throws IOException {
+        final Path file = tempDir.resolve("test.xml");
+        Files.write(file, "<root><a>one</a></root>".getBytes(StandardCharsets.UTF_8));
+        final XmlStringLookup lookup = new XmlStringLookup(XmlStringLookup.DEFAULT_FEATURES, 10);
+        assertEquals("one", lookup.lookup(file + ":/root/a"));
+        assertEquals("one", lookup.lookup(file + ":/root/a"));
+        Files.write(file, "<root><a>three</a></root>".getBytes(StandardCharsets.UTF_8));
+        assertEquals("three", lookup.lookup(file + ":/root/a"));
+        assertThrows(IllegalArgumentException.class, () -> lookup.lookup(file + ":!JUNK!"));
+    }
+
+    @Test
+    public void testCachedFences() {
+        final String xpath = "/root/path/to/node";
+        assertEquals("Hello World!", new XmlStringLookup(new HashMap<>(), 10, CURRENT_PATH).lookup(DOC_RELATIVE + ":" + xpath));
+        assertThrows(IllegalArgumentException.class, () -> new XmlStringLookup(new HashMap<>(), 10, CURRENT_PATH).lookup(DOC_ROOT + ":" + xpath));
+        assertThrows(IllegalArgumentException.class, () -> new XmlStringLookup(new HashMap<>(), 10, ABSENT_PATH).lookup(DOC_RELATIVE + ":" + xpath));
+    }
+
+    @Test
+    public void testCachedSecureProcessing() throws IOException {
+        Files.write(tempDir.resolve("test.dtd"), "<!ENTITY name \"external\">".getBytes(StandardCharsets.UTF_8));
+        final Path file = tempDir.resolve("test.xml");
+        Files.write(file, "<!DOCTYPE root SYSTEM \"test.dtd\"><root><a>&name;</a></root>".getBytes(StandardCharsets.UTF_8));
+        // secure processing denies access to the external DTD
+        assertThrows(IllegalArgumentException.class, () -> new XmlStringLookup(XmlStringLookup.DEFAULT_FEATURES, 10).lookup(file + ":/root/a"));
+        assertEquals("external", new XmlStringLookup(new HashMap<>(), 10).lookup(file + ":/root/a"));
+    }
+
     @Test
     public void testMissingXPath() {
         assertThrows(IllegalArgumentException.class, () -> XmlStringLookup.INSTANCE.lookup(DOC_RELATIVE + ":" + "!JUNK!"));
@@ -158,6 +158,30 @@ public class StringMatcherOnCharArrayTest {
         assertEquals(1, matcher.isMatch(INPUT1, 12));
     }
 
+    @Test
+    public void testIndexOf() {
+        final char[] input = "a${b} ${c}$".toCharArray();
+        final StringMatcherFactory factory = StringMatcherFactory.INSTANCE;
+        for (final StringMatcher matcher : new StringMatcher[] {factory.charMatcher('$'), factory.stringMatcher("${"),
+            factory.charSetMatcher("${"), factory.noneMatcher()}) {
+            for (int start = 0; start <= input.length; start++) {
+                for (int end = start; end <= input.length; end++) {
+                    int expected = -1;
+                    for (int i = start; i < end; i++) {
+                        if (matcher.isMatch(input, i, 0, end) != 0) {
+                            expected = i;
+                            break;
+                        }
+                    }
+                    assertEquals(expected, matcher.indexOf(input, start, 0, end), matcher + " " + start + ".." + end);
+                }
+            }
+        }
+        assertEquals(6, factory.stringMatcher("${").indexOf(input, 2, 0, input.length));
+        assertEquals(-1, factory.stringMatcher("${").indexOf(input, 7, 0, input.length));
+        assertEquals(10, factory.charMatcher('$').indexOf(input, 7, 0, input.length));
+    }
+
     @Test
     public void testMatcherIndices() {
         // remember that the API contract is tight for the isMatch() method
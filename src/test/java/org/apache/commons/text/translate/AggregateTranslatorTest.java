@@ -17,9 +17,12 @@
 package org.apache.commons.text.translate;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -30,6 +33,55 @@ import org.junit.jupiter.api.Test;
  */
 public class AggregateTranslatorTest {
 
+    @Test
+    public void testDispatchTableKeepsLongestMatch() {
+        final Map<CharSequence, CharSequence> first = new HashMap<>();
+        first.put("a", "1");
+        first.put("ab", "X");
+        first.put("c", "3");
+        final Map<CharSequence, CharSequence> second = new HashMap<>();
+        second.put("a", "unused");
+        second.put("b", "2");
+        final AggregateTranslator subject = new AggregateTranslator(new LookupTranslator(first), new LookupTranslator(second));
+        assertEquals("X132d", subject.translate("abacbd"));
+        assertFalse(subject.isContextFree('a'));
+        assertTrue(subject.isContextFree('b'));
+        assertTrue(subject.isContextFree('d'));
+    }
+
+    @Test
+    public void testDispatchTableKeepsOrder() {
+        final CharSequenceTranslator custom = new CharSequenceTranslator() {
+            @Override
+            public int translate(final CharSequence input, final int index, final Writer writer) throws IOException {
+                if (input.charAt(index) != 'x') {
+                    return 0;
+                }
+                writer.write("custom");
+                return 1;
+            }
+        };
+        final Map<CharSequence, CharSequence> map = new HashMap<>();
+        map.put("x", "lookup");
+        map.put("y", "why");
+        final AggregateTranslator subject = new AggregateTranslator(custom, new LookupTranslator(map));
+        assertEquals("acustombwhy", subject.translate("axby"));
+        assertFalse(subject.isContextFree('x'));
+        assertFalse(subject.isContextFree('y'));
+    }
+
+    @Test
+    public void testDispatchTableNested() {
+        final Map<CharSequence, CharSequence> map = new HashMap<>();
+        map.put("&", "&amp;");
+        final AggregateTranslator inner = new AggregateTranslator(new LookupTranslator(map), NumericEntityEscaper.between(0x7f, 0xff));
+        final AggregateTranslator subject = new AggregateTranslator(inner, new UnicodeUnpairedSurrogateRemover());
+        assertEquals("a&amp;&#233;\u0100b", subject.translate("a&\u00e9\u0100\ud800b"));
+        assertTrue(subject.isContextFree('&'));
+        assertTrue(subject.isContextFree('\u00e9'));
+        assertFalse(subject.isContextFree('\u0100'));
+    }
+
     @Test
     public void testNonNull() throws IOException {
         final Map<CharSequence, CharSequence> oneTwoMap = new HashMap<>();
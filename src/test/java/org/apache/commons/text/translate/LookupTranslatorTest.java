@@ -44,6 +44,11 @@ public class LookupTranslatorTest  {
         assertEquals("two", out.toString(), "Incorrect value");
     }
 
+    @Test
+    public void testEmptyMap() {
+        assertEquals("abc", new LookupTranslator(new HashMap<>()).translate("abc"));
+    }
+
     @Test
     public void testFailsToCreateLookupTranslatorThrowsInvalidParameterException() {
         assertThrowsExactly(InvalidParameterException.class, () -> new LookupTranslator(null));
@@ -61,6 +66,25 @@ public class LookupTranslatorTest  {
         assertEquals("two", out.toString(), "Incorrect value");
     }
 
+    @Test
+    public void testLongestMatch() {
+        final Map<CharSequence, CharSequence> translatorMap = new HashMap<>();
+        translatorMap.put("a", "1");
+        translatorMap.put("ab", "2");
+        translatorMap.put("abc", "3");
+        translatorMap.put("abcde", "5");
+        translatorMap.put("b", "B");
+        final LookupTranslator lt = new LookupTranslator(translatorMap);
+        assertEquals("3", lt.translate("abc"));
+        assertEquals("2", lt.translate("ab"));
+        assertEquals("2x", lt.translate("abx"));
+        assertEquals("3d", lt.translate("abcd"));
+        assertEquals("5", lt.translate("abcde"));
+        assertEquals("1c2B", lt.translate("acabb"));
+        assertEquals("x1", lt.translate("xa"));
+        assertEquals("", lt.translate(""));
+    }
+
     @Test
     public void testTranslateSupplementaryCharacter() {
         /* Key: string with Mathematical double-struck capital A (U+1D538) */
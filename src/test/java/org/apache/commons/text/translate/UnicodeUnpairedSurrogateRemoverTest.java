@@ -39,6 +39,13 @@ public class UnicodeUnpairedSurrogateRemoverTest {
         assertEquals(0, writer.size());
     }
 
+    @Test
+    public void testTranslateString() {
+        assertEquals("ab", subject.translate("a\ud800b"));
+        assertEquals("a", subject.translate("a\udfff"));
+        assertEquals("a\ud83d\ude00", subject.translate("a\ud83d\ude00"));
+    }
+
     @Test
     public void testValidCharacters() throws IOException {
         assertFalse(subject.translate(0xd7ff, writer));